@@ -28,12 +28,10 @@ package com.automation.seletest.core.aspectJ;
 
 
 import java.io.IOException;
-import java.text.NumberFormat;
 import java.util.List;
 
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
-import org.aspectj.lang.annotation.After;
 import org.aspectj.lang.annotation.AfterReturning;
 import org.aspectj.lang.annotation.AfterThrowing;
 import org.aspectj.lang.annotation.Around;
@@ -43,11 +41,13 @@ import org.openqa.selenium.WebElement;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
-import org.testng.Reporter;
 
+import com.automation.seletest.core.jmx.MonitorMetricsRegistry;
 import com.automation.seletest.core.selenium.configuration.SessionControl;
-import com.automation.seletest.core.selenium.threads.SessionContext;
-import com.automation.seletest.core.services.annotations.WaitCondition;
+import com.automation.seletest.core.selenium.threads.ExecutionContext;
+import com.automation.seletest.core.selenium.threads.SessionProperties;
+import com.automation.seletest.core.services.screenshots.FrameRecorder;
+import com.automation.seletest.core.services.utilities.ConsoleLogCollector;
 import com.automation.seletest.core.services.utilities.LogUtils;
 
 /**
@@ -64,6 +64,18 @@ public class ActionsHandler extends SeletestPointCuts {
     @Autowired
     LogUtils log;
 
+    /**Metrics of @Monitor methods*/
+    @Autowired
+    MonitorMetricsRegistry metrics;
+
+    /**Frames kept in memory for failures*/
+    @Autowired
+    FrameRecorder frames;
+
+    /**Browser console logs collector*/
+    @Autowired
+    ConsoleLogCollector console;
+
     /**Constant for taking screenshot*/
     private static final String takeScreencap="Take screenshot after exception: ";
 
@@ -85,7 +97,7 @@ public class ActionsHandler extends SeletestPointCuts {
      */
     @AfterThrowing(pointcut="waitConditions()", throwing = "ex")
     public void takeScreenCap(final JoinPoint joinPoint, Throwable ex) throws IOException {
-        if(Reporter.getCurrentTestResult().getAttribute("verification")==null) {
+        if(!ExecutionContext.current().isVerification()) {
             log.warn(takeScreencap+ex.getMessage().split("Build")[0].trim(),"color:orange;");
             SessionControl.webController().takeScreenShot();
         }
@@ -97,18 +109,33 @@ public class ActionsHandler extends SeletestPointCuts {
      */
     @Before(value="waitElement()")
     public void waitFor(final JoinPoint pjp) {
-        WaitCondition waitFor=invokedMethod(pjp).getAnnotation(WaitCondition.class);
-        if(SessionContext.getSession().getWaitStrategy().equalsIgnoreCase("WebDriverWait")) {
-            if (waitFor == null || waitFor.value().equals(WaitCondition.waitFor.VISIBILITY) || (waitFor.value().equals(WaitCondition.waitFor.PRESENCE) && (methodArguments((ProceedingJoinPoint) pjp)[0] instanceof WebElement))) {
-                SessionContext.getSession().setWebElement((WebElement) SessionControl.waitController().waitForElementVisibility(methodArguments((ProceedingJoinPoint) pjp)[0]));
-            } else if (waitFor.value().equals(WaitCondition.waitFor.CLICKABLE)) {
-                SessionContext.getSession().setWebElement((WebElement) SessionControl.waitController().waitForElementToBeClickable(methodArguments((ProceedingJoinPoint) pjp)[0]));
-            } else if (waitFor.value().equals(WaitCondition.waitFor.PRESENCE) && !(methodArguments((ProceedingJoinPoint) pjp)[0] instanceof WebElement)) {
-                SessionContext.getSession().setWebElement((WebElement) SessionControl.waitController().waitForElementPresence((String) methodArguments((ProceedingJoinPoint) pjp)[0]));
-            } else if (waitFor.value().equals(WaitCondition.waitFor.PRESENCEALL) && !(methodArguments((ProceedingJoinPoint) pjp)[0] instanceof WebElement)) {
-                SessionContext.getSession().setWebElements((List<WebElement>) SessionControl.waitController().waitForPresenceofAllElements((String) methodArguments((ProceedingJoinPoint) pjp)[0]));
-            } else if (waitFor.value().equals(WaitCondition.waitFor.VISIBILITYALL) || (waitFor.value().equals(WaitCondition.waitFor.PRESENCE) && (methodArguments((ProceedingJoinPoint) pjp)[0] instanceof WebElement))) {
-                SessionContext.getSession().setWebElements((List<WebElement>) SessionControl.waitController().waitForVisibilityofAllElements((String) methodArguments((ProceedingJoinPoint) pjp)[0]));
+        SessionProperties<?> session=ExecutionContext.current().getSession();
+        if(session.getWaitStrategy().equalsIgnoreCase("WebDriverWait")) {
+            Object locator=methodArguments((ProceedingJoinPoint) pjp)[0];
+            switch (metadata(pjp).getWaitPolicy()) {
+            case VISIBILITY:
+                session.setWebElement((WebElement) SessionControl.waitController().waitForElementVisibility(locator));
+                break;
+            case CLICKABLE:
+                session.setWebElement((WebElement) SessionControl.waitController().waitForElementToBeClickable(locator));
+                break;
+            case PRESENCE:
+                if(locator instanceof WebElement) {
+                    session.setWebElement((WebElement) SessionControl.waitController().waitForElementVisibility(locator));
+                } else {
+                    session.setWebElement((WebElement) SessionControl.waitController().waitForElementPresence((String) locator));
+                }
+                break;
+            case PRESENCEALL:
+                if(!(locator instanceof WebElement)) {
+                    session.setWebElements((List<WebElement>) SessionControl.waitController().waitForPresenceofAllElements((String) locator));
+                }
+                break;
+            case VISIBILITYALL:
+                session.setWebElements((List<WebElement>) SessionControl.waitController().waitForVisibilityofAllElements((String) locator));
+                break;
+            default:
+                break;
             }
         }
     }
@@ -117,32 +144,23 @@ public class ActionsHandler extends SeletestPointCuts {
     @Around(value="monitor()")
     public Object monitorLogs(ProceedingJoinPoint pjp) throws Throwable {
         Object returnValue ;
-        long start = System.currentTimeMillis();
-        returnValue = pjp.proceed();
-        long elapsedTime = System.currentTimeMillis() - start;
-        if(LoggerFactory.getLogger(ActionsHandler.class).isDebugEnabled()) {
-            log.info("Execution time for method \"" + pjp.getSignature().getName() + "\": " + elapsedTime + " ms. ("+ elapsedTime/60000 + " minutes)","\"color:#0066CC;\"");
+        long allocatedBefore = metrics.threadAllocatedBytes();
+        long start = System.nanoTime();
+        try {
+            returnValue = pjp.proceed();
+        } finally {
+            long elapsedTime = System.nanoTime() - start;
+            long allocated = allocatedBefore < 0 ? -1 : metrics.threadAllocatedBytes() - allocatedBefore;
+            metrics.record(metadata(pjp).getMetricName(), elapsedTime, allocated);
+            if(LoggerFactory.getLogger(ActionsHandler.class).isDebugEnabled()) {
+                log.info("Execution time for method \"" + pjp.getSignature().getName() + "\": " + elapsedTime/1000000 + " ms, allocated " + allocated/1024 + " KB","\"color:#0066CC;\"");
+            }
+            if(!pjp.getSignature().getName().startsWith("takeScreenShot")) {
+                frames.record(metadata(pjp).getShortSignature());
+            }
+            console.collect(metadata(pjp).getShortSignature());
         }
         return returnValue;
     }
 
-
-    /**Log memory usage before execution of method*/
-    @Before("monitor()")
-    public void memoryBefore(final JoinPoint pjp) {
-        if(LoggerFactory.getLogger(ActionsHandler.class).isDebugEnabled()) {
-            NumberFormat format = NumberFormat.getInstance();
-            log.info("JVM memory in use = " + format.format((Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory()) / 1024) + " before executing method: " + pjp.getSignature().getName());
-        }
-    }
-
-    /**Log memory usage after execution of method*/
-    @After("monitor()")
-    public void memoryAfter(final JoinPoint pjp) {
-        if(LoggerFactory.getLogger(ActionsHandler.class).isDebugEnabled()) {
-            NumberFormat format = NumberFormat.getInstance();
-            log.info("JVM memory in use = " + format.format((Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory()) / 1024) + " before executing method: " + pjp.getSignature().getName());
-        }
-    }
-
 }
@@ -0,0 +1,105 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.aspectJ;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.SessionId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.automation.seletest.core.selenium.threads.ExecutionContext;
+import com.automation.seletest.core.selenium.threads.SessionProperties;
+import com.automation.seletest.core.services.utilities.EventLog;
+
+/**
+ * Aspect that emits a structured event for every framework action
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Aspect
+@Component
+public class EventLogHandler extends SeletestPointCuts {
+
+    /**The event log*/
+    @Autowired
+    EventLog events;
+
+    /**
+     * Emit event with timing, outcome and retries of action
+     * @param pjp ProceedingJoinPoint
+     * @return value from ProceedingJoinPoint
+     * @throws Throwable
+     */
+    @Around("frameworkActions()")
+    public Object emitEvent(ProceedingJoinPoint pjp) throws Throwable {
+        if(!events.isEnabled()) {
+            return pjp.proceed();
+        }
+        ExecutionContext executionContext = ExecutionContext.current();
+        SessionProperties<?> session = executionContext.getSession();
+        int retriesBefore = session == null ? 0 : session.getRetries().get();
+        String outcome = "ok";
+        long start = System.nanoTime();
+        try {
+            return pjp.proceed();
+        } catch (Throwable ex) {
+            outcome = ex.getClass().getSimpleName();
+            throw ex;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            Object[] args = pjp.getArgs();
+            events.emit(sessionId(session),
+                    executionContext.getTest(),
+                    metadata(pjp).getMetricName(),
+                    args.length > 0 ? args[0] : null,
+                    elapsed,
+                    outcome,
+                    session == null ? 0 : session.getRetries().get() - retriesBefore);
+        }
+    }
+
+    /**
+     * Id of session, the WebDriver session id if available
+     * @param session SessionProperties
+     * @return String id
+     */
+    private String sessionId(SessionProperties<?> session) {
+        if(session == null) {
+            return null;
+        }
+        if(session.getWebDriver() instanceof RemoteWebDriver) {
+            SessionId id = ((RemoteWebDriver) session.getWebDriver()).getSessionId();
+            if(id != null) {
+                return id.toString();
+            }
+        }
+        return Integer.toHexString(System.identityHashCode(session));
+    }
+}
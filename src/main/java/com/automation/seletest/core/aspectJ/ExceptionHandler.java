@@ -26,23 +26,25 @@ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 package com.automation.seletest.core.aspectJ;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import lombok.extern.slf4j.Slf4j;
 
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
-import org.aspectj.lang.reflect.MethodSignature;
 import org.openqa.selenium.TimeoutException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
-import org.testng.Reporter;
 
 import com.automation.seletest.core.selenium.configuration.SessionControl;
-import com.automation.seletest.core.selenium.threads.SessionContext;
+import com.automation.seletest.core.selenium.threads.ExecutionContext;
+import com.automation.seletest.core.selenium.threads.SessionProperties;
 import com.automation.seletest.core.services.annotations.JSHandle;
 import com.automation.seletest.core.services.annotations.RetryFailure;
 import com.automation.seletest.core.services.annotations.VerifyLog;
+import com.automation.seletest.core.services.retry.RetryEngine;
 import com.automation.seletest.core.services.utilities.LogUtils;
 import com.automation.seletest.core.testNG.assertions.SoftAssert;
 import com.thoughtworks.selenium.SeleniumException;
@@ -61,6 +63,10 @@ public class ExceptionHandler extends SeletestPointCuts {
     @Autowired
     LogUtils report;
 
+    /**Retry engine*/
+    @Autowired
+    RetryEngine retryEngine;
+
     /** Environment instance*/
     @Autowired
     Environment env;
@@ -82,7 +88,7 @@ public class ExceptionHandler extends SeletestPointCuts {
             }
         } catch (Exception ex) {
             if (ex instanceof TimeoutException || ex instanceof SeleniumException) {
-                if(Reporter.getCurrentTestResult().getAttribute("verification")==null) {
+                if(!ExecutionContext.current().isVerification()) {
                     report.error("Exception: "+ex.getMessage().split("\n")[0]);
                 }
                 throw ex;
@@ -159,24 +165,26 @@ public class ExceptionHandler extends SeletestPointCuts {
     @Around("logVerify(verify)")
     public Object verify(ProceedingJoinPoint pjp, VerifyLog verify) throws Throwable {
         Object returnValue;
+        MethodMetadata metadata=metadata(pjp);
+        Object[] args=pjp.getArgs();
         try {
-            Reporter.getCurrentTestResult().setAttribute("verification", true);
+            ExecutionContext.current().setVerification(true);
             returnValue = pjp.proceed();
-            if(!((SessionContext.getSession().getAssertion()).getAssertion() instanceof SoftAssert)) {
-                if((pjp).getArgs().length==1) {
-                    report.info(env.getProperty(verify.message())+" "+(pjp).getArgs()[0]+" "+env.getProperty(verify.messagePass()), "color:green; margin-left:20px;");
+            if(!((ExecutionContext.current().getSession().getAssertion()).getAssertion() instanceof SoftAssert)) {
+                if(args.length==1) {
+                    report.info(metadata.getVerifyMessage()+" "+args[0]+" "+metadata.getVerifyMessagePass(), "color:green; margin-left:20px;");
                 } else {
-                    report.info(env.getProperty(verify.message())+" "+(pjp).getArgs()[0]+" "+env.getProperty(verify.messagePass()) + " "+(pjp).getArgs()[1], "color:green; margin-left:20px;");
-                } if(verify.highlight()) {
-                    SessionControl.webController().changeStyle((pjp).getArgs()[0],"backgroundColor", env.getProperty("color_pass"));
+                    report.info(metadata.getVerifyMessage()+" "+args[0]+" "+metadata.getVerifyMessagePass() + " "+argument(args[1]), "color:green; margin-left:20px;");
+                } if(metadata.isHighlight()) {
+                    SessionControl.webController().changeStyle(args[0],"backgroundColor", env.getProperty("color_pass"));
                 }
             }
         } catch(AssertionError ex) {
-            report.verificationError("[Failed Assertion]: "+env.getProperty(verify.message())+" "+arguments(pjp)+" "+env.getProperty(verify.messageFail()));
-            if(verify.screenShot()) {
+            report.verificationError("[Failed Assertion]: "+metadata.getVerifyMessage()+" "+arguments(pjp)+" "+metadata.getVerifyMessageFail());
+            if(metadata.isScreenShot()) {
                 SessionControl.webController().takeScreenShot();
-            } if(verify.highlight()){
-                SessionControl.webController().changeStyle((pjp).getArgs()[0],"backgroundColor",  env.getProperty("color_fail"));
+            } if(metadata.isHighlight()){
+                SessionControl.webController().changeStyle(args[0],"backgroundColor",  env.getProperty("color_fail"));
             }
             throw ex;
         }
@@ -192,7 +200,9 @@ public class ExceptionHandler extends SeletestPointCuts {
     @Around("webControl()")
     public Object webControl(ProceedingJoinPoint pjp) throws Throwable {
         Object returnValue;
-        Reporter.getCurrentTestResult().removeAttribute("verification");
+        ExecutionContext executionContext=ExecutionContext.current();
+        executionContext.setVerification(false);
+        executionContext.setStep(pjp.getSignature().getName());
         returnValue = pjp.proceed();
         return returnValue;
     }
@@ -206,23 +216,41 @@ public class ExceptionHandler extends SeletestPointCuts {
      * @throws Throwable
      */
     private void handleRetryException(ProceedingJoinPoint pjp, Throwable ex, int attemptCount, RetryFailure retry) throws Throwable {
-        if (ex instanceof TimeoutException || ex instanceof SeleniumException) {
+        if (retryEngine.isPermanent(ex)) {
+            retryEngine.recordPermanentFailure();
             log.debug("Do not retry execution due to exception {}", ex.getMessage());
             throw ex;
         } if (attemptCount == 1 + retry.retryCount()) {
             log.debug("Retry execution exceeded for method {}",invokedMethod(pjp));
             throw new RuntimeException(retry.message()+" for method: "+invokedMethod(pjp), ex);
+        } else if (ExecutionContext.current().isExpired()) {
+            log.debug("Deadline passed, do not retry method {}",invokedMethod(pjp));
+            throw new RuntimeException("Deadline exceeded for method: "+invokedMethod(pjp), ex);
+        } else if (!retryEngine.acquire(sessionRetries())) {
+            log.debug("Retry budget exceeded for method {}",invokedMethod(pjp));
+            throw new RuntimeException("Retry budget exceeded for method: "+invokedMethod(pjp), ex);
         } else {
-            report.error(String.format("%s: Attempt %d of %d failed with exception '%s'. Will retry immediately. %s",
-                    pjp.getSignature().toString().substring(pjp.getSignature().toString().lastIndexOf(".")),
+            long backoff=retryEngine.backoff(retry, attemptCount);
+            report.error(String.format("%s: Attempt %d of %d failed with exception '%s'. Will retry in %d ms. %s",
+                    metadata(pjp).getShortSignature(),
                     attemptCount,
                     retry.retryCount(),
                     ex.getClass().getCanonicalName(),
+                    backoff,
                     ex.getMessage()));
-            Thread.sleep(retry.sleepMillis());
+            retryEngine.sleep(metadata(pjp).getMetricName(), backoff);
         }
     }
 
+    /**
+     * Retries consumed by the active session
+     * @return AtomicInteger retries or null if there is no active session
+     */
+    private AtomicInteger sessionRetries() {
+        SessionProperties<?> session = ExecutionContext.current().getSession();
+        return session == null ? null : session.getRetries();
+    }
+
     /**
      * Handle exceptions for Boolean-Integer returning type methods in web controller
      * @param pjp ProceedingJoinPoint
@@ -230,16 +258,11 @@ public class ExceptionHandler extends SeletestPointCuts {
      * @throws Throwable
      */
     private Object handleExceptionReturn(ProceedingJoinPoint pjp) throws Throwable {
-        MethodSignature signature = (MethodSignature ) pjp.getSignature();
-        Class<?> returnType = signature.getReturnType();
-        if(returnType.getName().compareTo("int")==0){
-            log.debug("Return 0 value for method {}",invokedMethod(pjp));
-            return 0;
-        } else if(returnType.getName().compareTo("boolean")==0){
-            log.debug("Return false value for method {}",invokedMethod(pjp));
-            return false;
+        Object defaultValue=metadata(pjp).getDefaultReturnValue();
+        if(defaultValue!=null){
+            log.debug("Return {} value for method {}",defaultValue,invokedMethod(pjp));
         }
-        return null;
+        return defaultValue;
     }
 
 
@@ -0,0 +1,144 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.aspectJ;
+
+import java.lang.reflect.Method;
+
+import lombok.Getter;
+
+import org.springframework.core.env.Environment;
+
+import com.automation.seletest.core.services.annotations.RetryFailure;
+import com.automation.seletest.core.services.annotations.VerifyLog;
+import com.automation.seletest.core.services.annotations.WaitCondition;
+import com.automation.seletest.core.services.annotations.WaitCondition.waitFor;
+
+/**
+ * Immutable metadata of an advised method (wait-retry-verify policies and default return value).
+ * Resolved once per Method by the {@link MethodMetadataRegistry} and shared by all advices.
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Getter
+public class MethodMetadata {
+
+    /**The advised method*/
+    private final Method method;
+
+    /**Wait policy, VISIBILITY if method is not annotated with @WaitCondition*/
+    private final waitFor waitPolicy;
+
+    /**Retry policy, null if method is not annotated with @RetryFailure*/
+    private final RetryFailure retryPolicy;
+
+    /**Verify policy, null if method is not annotated with @VerifyLog*/
+    private final VerifyLog verifyPolicy;
+
+    /**Resolved message of @VerifyLog*/
+    private final String verifyMessage;
+
+    /**Resolved message of @VerifyLog for passed assertion*/
+    private final String verifyMessagePass;
+
+    /**Resolved message of @VerifyLog for failed assertion*/
+    private final String verifyMessageFail;
+
+    /**Highlight element after verification*/
+    private final boolean highlight;
+
+    /**Take screenshot after failed verification*/
+    private final boolean screenShot;
+
+    /**Value returned from boolean-int methods when exception occurs*/
+    private final Object defaultReturnValue;
+
+    /**Short signature of method used in log messages*/
+    private final String shortSignature;
+
+    /**Name of method used in metrics, e.g. WebDriverController.click(Object)*/
+    private final String metricName;
+
+    /**
+     * Resolve metadata of method
+     * @param method Method advised
+     * @param env Environment to resolve verification messages
+     */
+    public MethodMetadata(Method method, Environment env) {
+        this.method = method;
+        WaitCondition wait = method.getAnnotation(WaitCondition.class);
+        this.waitPolicy = wait == null ? waitFor.VISIBILITY : wait.value();
+        this.retryPolicy = method.getAnnotation(RetryFailure.class);
+        this.verifyPolicy = method.getAnnotation(VerifyLog.class);
+        if(verifyPolicy != null) {
+            this.verifyMessage = env.getProperty(verifyPolicy.message());
+            this.verifyMessagePass = env.getProperty(verifyPolicy.messagePass());
+            this.verifyMessageFail = env.getProperty(verifyPolicy.messageFail());
+            this.highlight = verifyPolicy.highlight();
+            this.screenShot = verifyPolicy.screenShot();
+        } else {
+            this.verifyMessage = null;
+            this.verifyMessagePass = null;
+            this.verifyMessageFail = null;
+            this.highlight = false;
+            this.screenShot = false;
+        }
+        this.defaultReturnValue = defaultReturn(method.getReturnType());
+        this.shortSignature = shortSignature(method);
+        this.metricName = method.getDeclaringClass().getSimpleName() + shortSignature;
+    }
+
+    /**
+     * Short signature of method, e.g. .click(Object)
+     * @param method Method
+     * @return String signature
+     */
+    private static String shortSignature(Method method) {
+        StringBuilder signature = new StringBuilder(".").append(method.getName()).append("(");
+        Class<?>[] parameters = method.getParameterTypes();
+        for(int i=0; i < parameters.length; i++) {
+            if(i > 0) {
+                signature.append(", ");
+            }
+            signature.append(parameters[i].getSimpleName());
+        }
+        return signature.append(")").toString();
+    }
+
+    /**
+     * Default value for primitive returning types
+     * @param returnType Class returning type
+     * @return 0 for int, false for boolean, null otherwise
+     */
+    private static Object defaultReturn(Class<?> returnType) {
+        if(returnType == int.class) {
+            return 0;
+        } else if(returnType == boolean.class) {
+            return false;
+        }
+        return null;
+    }
+}
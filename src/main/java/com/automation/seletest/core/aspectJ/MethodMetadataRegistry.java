@@ -0,0 +1,92 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.aspectJ;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Registry that resolves once per Method the metadata used by aspect advices.
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Slf4j
+@Component
+public class MethodMetadataRegistry {
+
+    /**Environment instance*/
+    @Autowired
+    Environment env;
+
+    /**Resolved metadata per method*/
+    private final ConcurrentMap<Method, MethodMetadata> registry = new ConcurrentHashMap<>();
+
+    /**
+     * Metadata of the method of a JoinPoint
+     * @param jp JoinPoint
+     * @return MethodMetadata
+     */
+    public MethodMetadata metadata(JoinPoint jp) {
+        return metadata(((MethodSignature) jp.getSignature()).getMethod());
+    }
+
+    /**
+     * Metadata of a method, resolved on first access
+     * @param method Method
+     * @return MethodMetadata
+     */
+    public MethodMetadata metadata(Method method) {
+        MethodMetadata metadata = registry.get(method);
+        if(metadata == null) {
+            metadata = new MethodMetadata(method, env);
+            MethodMetadata existing = registry.putIfAbsent(method, metadata);
+            if(existing != null) {
+                metadata = existing;
+            } else {
+                log.debug("Metadata resolved for method {}", method);
+            }
+        }
+        return metadata;
+    }
+
+    /**
+     * Number of methods resolved
+     * @return int size of registry
+     */
+    public int size() {
+        return registry.size();
+    }
+}
@@ -27,6 +27,7 @@ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.automation.seletest.core.aspectJ;
 
 import java.lang.reflect.Method;
+import java.util.Arrays;
 
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
@@ -50,6 +51,10 @@ public abstract class SeletestPointCuts {
     @Autowired
     StrategyFactory<?> factoryStrategy;
 
+    /**Metadata of advised methods*/
+    @Autowired
+    MethodMetadataRegistry metadataRegistry;
+
     /**Methods in classpath that have @WaitCondition*/
     @Pointcut("execution(@com.automation.seletest.core.services.annotations.WaitCondition * *(..))")
     protected void waitElement() {}
@@ -97,6 +102,12 @@ public abstract class SeletestPointCuts {
     @Pointcut("execution(* com.automation.seletest.pagecomponents.pageObjects..*(..))")
     protected void logPOs() {}
 
+    /**Actions of controllers, wait conditions and verifications*/
+    @Pointcut("execution(* com.automation.seletest.core.selenium.webAPI.WebController.*(..)) || actionsBuilderController() "
+            + "|| execution(* com.automation.seletest.core.services.actions.WaitFor.*(..)) "
+            + "|| execution(@com.automation.seletest.core.services.annotations.VerifyLog * com.automation.seletest.core.testNG.assertions.Assert.*(..))")
+    protected void frameworkActions() {}
+
     /**PointCut for executing JS scripts*/
     @Pointcut("execution(* com.automation.seletest.core.selenium.webAPI..*(..)) && @annotation(jshandle)")
     protected void jsHandle(JSHandle jshandle) {}
@@ -111,11 +122,9 @@ public abstract class SeletestPointCuts {
         StringBuilder arguments = new StringBuilder();
         for(int i=0; i < proceedPoint.getArgs().length ;i++ ){
             MethodSignature sig = (MethodSignature)proceedPoint.getSignature();
-            String methodArgument="";
-            if(proceedPoint.getArgs()[i].toString().contains("->")){
-                methodArgument=proceedPoint.getArgs()[i].toString().split("->")[1].replace("]", "");
-            } else{
-                methodArgument=proceedPoint.getArgs()[i].toString();
+            String methodArgument=argument(proceedPoint.getArgs()[i]);
+            if(methodArgument.contains("->")){
+                methodArgument=methodArgument.split("->")[1].replace("]", "");
             }
             arguments.append("("+sig.getParameterNames()[i].toString()+" ---> "+methodArgument+") ");
         } if(arguments.toString().isEmpty()){
@@ -125,6 +134,18 @@ public abstract class SeletestPointCuts {
         }
     }
 
+    /**
+     * Printable value of a method argument
+     * @param argument the argument, may be null or an array (varargs)
+     * @return String value
+     */
+    public String argument(Object argument){
+        if(argument instanceof Object[]) {
+            return Arrays.deepToString((Object[]) argument);
+        }
+        return String.valueOf(argument);
+    }
+
     /**
      * Get method arguments
      * @param proceedPoint
@@ -145,5 +166,14 @@ public abstract class SeletestPointCuts {
         return m;
     }
 
+    /**
+     * Return metadata of invoked method
+     * @param pjp
+     * @return MethodMetadata resolved once per method
+     */
+    public MethodMetadata metadata(JoinPoint pjp) {
+        return metadataRegistry.metadata(pjp);
+    }
+
 
 }
@@ -0,0 +1,83 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.aspectJ;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Before;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.automation.seletest.core.selenium.threads.ExecutionContext;
+import com.automation.seletest.core.selenium.threads.SessionProperties;
+import com.automation.seletest.core.services.actions.SingleFlight;
+
+/**
+ * Aspect that lets concurrent identical wait conditions of a session share one evaluation,
+ * e.g. async verifications on the same locator. It runs outermost so the shared evaluation
+ * includes retries and exception handling of the other aspects.
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SingleFlightHandler extends SeletestPointCuts {
+
+    /**
+     * Run the wait condition or join an identical one in flight
+     * @param pjp ProceedingJoinPoint
+     * @return value from ProceedingJoinPoint
+     * @throws Throwable
+     */
+    @Around("waitConditions()")
+    public Object coalesce(final ProceedingJoinPoint pjp) throws Throwable {
+        SessionProperties<?> session = ExecutionContext.current().getSession();
+        if(session == null) {
+            return pjp.proceed();
+        }
+        return session.getInFlight().execute(pjp.getSignature().toLongString(), pjp.getArgs(), new SingleFlight.Call() {
+            @Override
+            public Object call() throws Throwable {
+                return pjp.proceed();
+            }
+        });
+    }
+
+    /**
+     * Actions on the page start a new document for coalescing
+     */
+    @Before("webControl() && !getReturningValue()")
+    public void newDocument() {
+        SessionProperties<?> session = ExecutionContext.current().getSession();
+        if(session != null) {
+            session.getInFlight().newDocument();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.jmx;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free log-linear histogram of latencies in nanoseconds (HDR style buckets).
+ * Every power of two is split in 32 sub buckets, so recorded values keep ~3% precision.
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+public class MethodHistogram {
+
+    /**Bits of sub buckets per power of two*/
+    private static final int SUB_BUCKET_BITS = 5;
+
+    /**Number of sub buckets per power of two*/
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**Total buckets covering every positive long value*/
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    /**Counts per bucket*/
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /**Number of recorded values*/
+    private final AtomicLong count = new AtomicLong();
+
+    /**Sum of recorded values*/
+    private final AtomicLong total = new AtomicLong();
+
+    /**Maximum recorded value*/
+    private final AtomicLong max = new AtomicLong();
+
+    /**Sum of bytes allocated by recording threads*/
+    private final AtomicLong allocatedBytes = new AtomicLong();
+
+    /**
+     * Record an execution
+     * @param nanos long elapsed time in nanoseconds
+     * @param allocated long bytes allocated by the thread during execution, negative if unknown
+     */
+    public void record(long nanos, long allocated) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucket(value));
+        count.incrementAndGet();
+        total.addAndGet(value);
+        long current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            //retry until max is updated
+        }
+        if(allocated > 0) {
+            allocatedBytes.addAndGet(allocated);
+        }
+    }
+
+    /**
+     * Value at given percentile
+     * @param percentile double between 0 and 100
+     * @return long nanoseconds (highest value equivalent to the bucket)
+     */
+    public long percentile(double percentile) {
+        long recorded = count.get();
+        if(recorded == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(Math.min(100, percentile) / 100 * recorded));
+        long cumulative = 0;
+        for(int i=0; i < BUCKETS; i++) {
+            cumulative += counts.get(i);
+            if(cumulative >= target) {
+                return Math.min(highestValue(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Number of executions
+     * @return long count
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Mean execution time
+     * @return long nanoseconds
+     */
+    public long getMean() {
+        long recorded = count.get();
+        return recorded == 0 ? 0 : total.get() / recorded;
+    }
+
+    /**
+     * Max execution time
+     * @return long nanoseconds
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Mean bytes allocated per execution
+     * @return long bytes
+     */
+    public long getMeanAllocatedBytes() {
+        long recorded = count.get();
+        return recorded == 0 ? 0 : allocatedBytes.get() / recorded;
+    }
+
+    /**
+     * Bucket index of a value
+     * @param value long positive value
+     * @return int index
+     */
+    static int bucket(long value) {
+        if(value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int shift = msb - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    /**
+     * Highest value that falls in a bucket
+     * @param index int bucket index
+     * @return long value
+     */
+    static long highestValue(int index) {
+        if(index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lowest = (long) (index % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,167 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.jmx;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Registry of execution metrics for methods annotated with @Monitor.
+ * Keeps a histogram per method with elapsed nanoseconds and bytes allocated by the executing thread.
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Slf4j
+@Component
+public class MonitorMetricsRegistry {
+
+    /**Header of metrics report*/
+    private static final String HEADER = String.format("%-50s %10s %12s %12s %12s %12s %12s %14s%n",
+            "Method", "Count", "Mean(ms)", "P50(ms)", "P90(ms)", "P99(ms)", "Max(ms)", "Alloc/call(KB)");
+
+    /**Histograms per method*/
+    private final ConcurrentMap<String, MethodHistogram> histograms = new ConcurrentHashMap<>();
+
+    /**Thread bean used for per thread allocated bytes, null if not supported by JVM*/
+    private final com.sun.management.ThreadMXBean threadBean = allocationBean();
+
+    /**
+     * Bytes allocated so far by the current thread
+     * @return long bytes or -1 if not supported
+     */
+    public long threadAllocatedBytes() {
+        return threadBean == null ? -1 : threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Record execution of method
+     * @param method String method name
+     * @param nanos long elapsed nanoseconds
+     * @param allocated long bytes allocated during execution
+     */
+    public void record(String method, long nanos, long allocated) {
+        histogram(method).record(nanos, allocated);
+    }
+
+    /**
+     * Histogram of method, created on first access
+     * @param method String method name
+     * @return MethodHistogram
+     */
+    public MethodHistogram histogram(String method) {
+        MethodHistogram histogram = histograms.get(method);
+        if(histogram == null) {
+            histogram = new MethodHistogram();
+            MethodHistogram existing = histograms.putIfAbsent(method, histogram);
+            if(existing != null) {
+                histogram = existing;
+            }
+        }
+        return histogram;
+    }
+
+    /**
+     * Histograms of all monitored methods sorted by name
+     * @return Map method name - histogram
+     */
+    public Map<String, MethodHistogram> histograms() {
+        return new TreeMap<>(histograms);
+    }
+
+    /**
+     * Clear all metrics
+     */
+    public void reset() {
+        histograms.clear();
+    }
+
+    /**
+     * Metrics report in text format
+     * @return String report
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder(HEADER);
+        for(Map.Entry<String, MethodHistogram> entry : histograms().entrySet()) {
+            MethodHistogram h = entry.getValue();
+            report.append(String.format("%-50s %10d %12.3f %12.3f %12.3f %12.3f %12.3f %14.1f%n",
+                    entry.getKey(), h.getCount(), millis(h.getMean()), millis(h.percentile(50)), millis(h.percentile(90)),
+                    millis(h.percentile(99)), millis(h.getMax()), h.getMeanAllocatedBytes() / 1024.0));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Dump metrics report to file
+     * @param file File to write
+     */
+    public void dump(File file) {
+        if(histograms.isEmpty()) {
+            return;
+        }
+        BufferedWriter writer = null;
+        try {
+            FileUtils.forceMkdir(file.getAbsoluteFile().getParentFile());
+            writer = new BufferedWriter(new FileWriter(file));
+            writer.write(report());
+            log.info("Monitor metrics dumped to: {}", file.getAbsolutePath());
+        } catch (IOException e) {
+            log.error("Exception during dumping monitor metrics: {}", e.getMessage());
+        } finally {
+            IOUtils.closeQuietly(writer);
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1000000.0;
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if(bean instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) bean;
+            if(!allocationBean.isThreadAllocatedMemoryEnabled()) {
+                allocationBean.setThreadAllocatedMemoryEnabled(true);
+            }
+            return allocationBean;
+        }
+        log.warn("Thread allocated memory is not supported by the JVM, allocations will not be monitored");
+        return null;
+    }
+}
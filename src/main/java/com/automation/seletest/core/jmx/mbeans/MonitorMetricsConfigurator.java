@@ -0,0 +1,80 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.jmx.mbeans;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedOperationParameter;
+import org.springframework.jmx.export.annotation.ManagedOperationParameters;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import com.automation.seletest.core.jmx.MethodHistogram;
+import com.automation.seletest.core.jmx.MonitorMetricsRegistry;
+
+/**
+ * MBean exposing execution metrics of @Monitor methods
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Component
+@ManagedResource(objectName = MonitorMetricsConfigurator.MBEAN_NAME, description = "Execution metrics of methods annotated with @Monitor")
+public class MonitorMetricsConfigurator {
+
+    public static final String MBEAN_NAME = "seletest.mbeans:type=monitoring,name=MonitorMetrics";
+
+    @Autowired
+    MonitorMetricsRegistry metrics;
+
+    @ManagedAttribute(description = "Names of monitored methods")
+    public String[] getMonitoredMethods() {
+        Map<String, MethodHistogram> histograms = metrics.histograms();
+        return histograms.keySet().toArray(new String[histograms.size()]);
+    }
+
+    @ManagedAttribute(description = "Metrics report of all monitored methods")
+    public String getReport() {
+        return metrics.report();
+    }
+
+    @ManagedOperation(description = "Returns the execution time in milliseconds at the given percentile")
+    @ManagedOperationParameters({
+            @ManagedOperationParameter(description = "The monitored method", name = "method"),
+            @ManagedOperationParameter(description = "The percentile (0-100)", name = "percentile") })
+    public double percentile(String method, double percentile) {
+        MethodHistogram histogram = metrics.histograms().get(method);
+        return histogram == null ? 0 : histogram.percentile(percentile) / 1000000.0;
+    }
+
+    @ManagedOperation(description = "Clears all metrics")
+    public void reset() {
+        metrics.reset();
+    }
+}
@@ -0,0 +1,95 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.jmx.mbeans;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import com.automation.seletest.core.services.retry.RetryEngine;
+
+/**
+ * MBean exposing retry counters and budgets of the retry engine
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Component
+@ManagedResource(objectName = RetryEngineConfigurator.MBEAN_NAME, description = "Retries, permanent failures and retry budgets")
+public class RetryEngineConfigurator {
+
+    public static final String MBEAN_NAME = "seletest.mbeans:type=monitoring,name=RetryEngine";
+
+    @Autowired
+    RetryEngine retryEngine;
+
+    @ManagedAttribute(description = "Total retries performed")
+    public long getRetries() {
+        return retryEngine.getRetries();
+    }
+
+    @ManagedAttribute(description = "Failures not retried as permanent")
+    public long getPermanentFailures() {
+        return retryEngine.getPermanentFailures();
+    }
+
+    @ManagedAttribute(description = "Retries rejected because of exceeded budget")
+    public long getRejectedRetries() {
+        return retryEngine.getRejectedRetries();
+    }
+
+    @ManagedAttribute(description = "True if the suite retry budget is exceeded")
+    public boolean isSuiteCircuitOpen() {
+        return retryEngine.isSuiteCircuitOpen();
+    }
+
+    @ManagedAttribute(description = "Retries allowed per session")
+    public int getSessionBudget() {
+        return retryEngine.getSessionBudget();
+    }
+
+    @ManagedAttribute(description = "Retries allowed per session")
+    public void setSessionBudget(int sessionBudget) {
+        retryEngine.setSessionBudget(sessionBudget);
+    }
+
+    @ManagedAttribute(description = "Retries allowed per suite")
+    public int getSuiteBudget() {
+        return retryEngine.getSuiteBudget();
+    }
+
+    @ManagedAttribute(description = "Retries allowed per suite")
+    public void setSuiteBudget(int suiteBudget) {
+        retryEngine.setSuiteBudget(suiteBudget);
+    }
+
+    @ManagedOperation(description = "Resets the suite budget and counters")
+    public void reset() {
+        retryEngine.reset();
+    }
+}
@@ -0,0 +1,105 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.jmx.mbeans;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import com.automation.seletest.core.spring.FairSessionExecutor;
+
+/**
+ * MBean exposing queues and backpressure of the session task executor
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Component
+@ManagedResource(objectName = SessionExecutorConfigurator.MBEAN_NAME, description = "Per session queues of the asynchronous verification executor")
+public class SessionExecutorConfigurator {
+
+    public static final String MBEAN_NAME = "seletest.mbeans:type=monitoring,name=SessionExecutor";
+
+    @Autowired
+    FairSessionExecutor executor;
+
+    @ManagedAttribute(description = "Tasks waiting in all session queues")
+    public int getQueueDepth() {
+        return executor.getQueueDepth();
+    }
+
+    @ManagedAttribute(description = "Highest number of waiting tasks")
+    public int getMaxQueueDepth() {
+        return executor.getMaxQueued().get();
+    }
+
+    @ManagedAttribute(description = "Waiting tasks per session")
+    public String getSessionQueues() {
+        return executor.sessionDepths().toString();
+    }
+
+    @ManagedAttribute(description = "Capacity of each session queue")
+    public int getSessionQueueCapacity() {
+        return executor.getSessionQueueCapacity();
+    }
+
+    @ManagedAttribute(description = "Busy workers")
+    public int getActiveWorkers() {
+        return executor.getActiveWorkers();
+    }
+
+    @ManagedAttribute(description = "Tasks dispatched to workers")
+    public long getDispatched() {
+        return executor.getDispatched().get();
+    }
+
+    @ManagedAttribute(description = "Average queue wait of dispatched tasks in milliseconds")
+    public double getAverageWaitMillis() {
+        return executor.getAverageWaitMillis();
+    }
+
+    @ManagedAttribute(description = "Longest queue wait of a task in milliseconds")
+    public double getMaxWaitMillis() {
+        return executor.getMaxWaitMillis();
+    }
+
+    @ManagedAttribute(description = "Submissions that waited for queue space")
+    public long getBlockedSubmissions() {
+        return executor.getBlocked().get();
+    }
+
+    @ManagedAttribute(description = "Submissions rejected by a full queue and run by the submitting thread")
+    public long getRejections() {
+        return executor.getInlineRuns().get();
+    }
+
+    @ManagedOperation(description = "Clears wait and rejection statistics")
+    public void reset() {
+        executor.resetStatistics();
+    }
+}
@@ -44,6 +44,8 @@ import org.testng.annotations.ITestAnnotation;
 
 import com.automation.seletest.core.services.annotations.DataSource;
 import com.automation.seletest.core.services.annotations.DataSource.Data;
+import com.automation.seletest.core.services.retry.RetryEngine;
+import com.automation.seletest.core.spring.ApplicationContextProvider;
 import com.automation.seletest.core.testNG.DataSources;
 
 /**
@@ -60,6 +62,12 @@ public class AnnotationTransformer implements IAnnotationTransformer2{
     /**The name of the DataProvider used to load data from excel for data driven testing*/
     private static final String dataExcelSource="ExcelDataProvider";
 
+    /**The name of the DataProvider used to stream csv rows for data driven testing*/
+    private static final String dataCsvSource="CSVDataProvider";
+
+    /**The name of the DataProvider used to stream xlsx rows for data driven testing*/
+    private static final String dataXlsxSource="XLSXDataProvider";
+
     @Override
     @SuppressWarnings("rawtypes")
     public void transform(final ITestAnnotation test, final Class testClass, final Constructor testConstructor, final Method testMethod) {
@@ -73,6 +81,12 @@ public class AnnotationTransformer implements IAnnotationTransformer2{
                 } else if(dataType(testMethod).equals(Data.EXCEL)){
                     test.setDataProviderClass(DataSources.class);
                     test.setDataProvider(dataExcelSource);
+                } else if(dataType(testMethod).equals(Data.CSV_ROWS) && !hasDataProvider(test)){
+                    test.setDataProviderClass(DataSources.class);
+                    test.setDataProvider(dataCsvSource);
+                } else if(dataType(testMethod).equals(Data.XLSX) && !hasDataProvider(test)){
+                    test.setDataProviderClass(DataSources.class);
+                    test.setDataProvider(dataXlsxSource);
                 }
             }
         }
@@ -84,6 +98,15 @@ public class AnnotationTransformer implements IAnnotationTransformer2{
         }
     }
 
+    /**
+     * Defines if the test declares its own data provider, streaming sources do not override it
+     * @param test ITestAnnotation
+     * @return true if a data provider is set
+     */
+    private boolean hasDataProvider(final ITestAnnotation test) {
+        return test.getDataProvider() != null && !test.getDataProvider().isEmpty();
+    }
+
     /**
      * Condition for use of custom dataprovider
      * @param testMethod Method testMethod
@@ -153,7 +176,7 @@ public class AnnotationTransformer implements IAnnotationTransformer2{
 
             if ((!result.isSuccess() &&
                     (!(result.getThrowable() instanceof TimeoutException || result.getThrowable() instanceof AssertionError)))) {
-                if (count < maxCount) {
+                if (count < maxCount && retryAllowed(result.getThrowable())) {
                     count++;
                     log.info("{} - Error in {} with status {}. Retrying {} times",Thread.currentThread().getName(),result.getName(),result.getStatus(),count);
                     return true;
@@ -172,6 +195,28 @@ public class AnnotationTransformer implements IAnnotationTransformer2{
         public void setCount(int count) {
             maxCount = count;
         }
+
+        /**
+         * Rerun test only for transient failures while suite retry budget is not exceeded
+         * @param throwable Throwable of the failed test
+         * @return true if test can be rerun
+         */
+        private boolean retryAllowed(Throwable throwable) {
+            if(ApplicationContextProvider.getApplicationContext() == null) {
+                return true;
+            }
+            RetryEngine engine = ApplicationContextProvider.getApplicationContext().getBean(RetryEngine.class);
+            Throwable cause = throwable;
+            while (cause != null) {
+                if(engine.isPermanent(cause)) {
+                    engine.recordPermanentFailure();
+                    log.info("Test {} will not be rerun due to permanent failure {}", Reporter.getCurrentTestResult() == null ? "" : Reporter.getCurrentTestResult().getName(), cause.getClass().getSimpleName());
+                    return false;
+                }
+                cause = cause.getCause();
+            }
+            return engine.acquire(null);
+        }
     }
 
 }
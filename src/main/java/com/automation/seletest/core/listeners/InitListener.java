@@ -31,8 +31,12 @@ package com.automation.seletest.core.listeners;
 import java.io.File;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -44,9 +48,13 @@ import org.testng.ITestResult;
 import org.testng.SkipException;
 
 import com.automation.seletest.core.selenium.configuration.SessionControl;
+import com.automation.seletest.core.selenium.threads.ExecutionContext;
 import com.automation.seletest.core.selenium.threads.SessionContext;
+import com.automation.seletest.core.selenium.threads.SessionProperties;
 import com.automation.seletest.core.services.annotations.SeleniumTest;
+import com.automation.seletest.core.services.utilities.LogUtils;
 import com.automation.seletest.core.services.utilities.PerformanceUtils;
+import com.automation.seletest.core.services.utilities.ReportWriter;
 import com.automation.seletest.core.spring.ApplicationContextProvider;
 import com.automation.seletest.core.testNG.PostConfiguration;
 import com.automation.seletest.core.testNG.PreConfiguration;
@@ -56,6 +64,9 @@ import com.automation.seletest.core.testNG.assertions.SoftAssert;
 @SuppressWarnings("unchecked")
 public class InitListener implements IInvokedMethodListener{
 
+	/**Default max time (millis) to wait for async verifications of a test without timeout*/
+	private static final long VERIFICATION_TIMEOUT=60000;
+
 	@Override
 	public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
 		PreConfiguration preconfigure = null;
@@ -71,7 +82,15 @@ public class InitListener implements IInvokedMethodListener{
 			testResult.setAttribute("session", SessionContext.session());}
 		catch(Exception ex) {}
 
+		//Execution context of the thread read by the advice stack
+		ExecutionContext executionContext=ExecutionContext.start((SessionProperties<?>) testResult.getAttribute("session"), method.getTestMethod().getTimeOut());
+		executionContext.setTest(testResult.getName());
+		executionContext.setParameters(testResult.getParameters());
+
 		if(method.getTestMethod().isTest()){
+			//Report of the invocation is started on the test thread, so that the link is added to this result
+			executionContext.setInvocation(ApplicationContextProvider.getApplicationContext().getBean(ReportWriter.class).begin(testResult));
+			testResult.setAttribute("invocation", executionContext.getInvocation());
 			log.debug("Set assertion type parameter for test method: {}!!!", method.getTestMethod().getMethodName());
 			SeleniumTest seleniumTest=AnnotationUtils.findAnnotation(method.getTestMethod().getConstructorOrMethod().getMethod(), SeleniumTest.class);
 			ApplicationContextProvider.getApplicationContext().getBean(ApplicationContextProvider.class).publishTestNGEvent(seleniumTest, "Initialize objects for the @Test method: "+method.getTestMethod().getMethodName()); 
@@ -103,24 +122,16 @@ public class InitListener implements IInvokedMethodListener{
 
 			//Wait for verifications to complete before finishing @Test (only for SoftAssert)
 			if(SessionContext.getSession().getAssertion().getAssertion() instanceof SoftAssert){
-				for(Future<?> a : (ArrayList<Future<?>>) SessionContext.getSession().getVerifications()){
-					while(!a.isDone()){
-						try {
-							Thread.sleep(10);
-						} catch (InterruptedException e) {
-							log.error("Exception waiting future task to complete: "+e);
-						}
-					}
-				}
+				awaitVerifications((List<Future<?>>) SessionContext.getSession().getVerifications(), testResult);
 				log.debug("Async verifications finished for @Test {}",method.getTestMethod().getMethodName());
 			}
 
 			postconfigure = method.getTestMethod().getConstructorOrMethod().getMethod().getAnnotation(PostConfiguration.class);
 			PerformanceUtils perf=SessionContext.session().getPerformance();
 			SessionControl.verifyController().assertAll();
+			ExecutionContext.current().getSession().setSnapshot(null);
 			if(perf!=null) {
-				perf.getPerformanceData(perf.getServer());
-				perf.writePerformanceData(new File("./target/surefire-reports/logs/"+testResult.getName()+".har").getAbsolutePath(), perf.getHar());
+				perf.finishHar(new File("./target/surefire-reports/logs/"+testResult.getName()+".har.gz"));
 				perf.stopServer(perf.getServer());
 				log.debug("Performance data collected for test method: {} !!!",method.getTestMethod().getMethodName());
 			}
@@ -131,6 +142,49 @@ public class InitListener implements IInvokedMethodListener{
 			log.debug("Postconfiguration steps will be executed now for @Test {} !!!",method.getTestMethod().getMethodName());
 			executionConfiguration(postconfigure);
 		}
+		if(ExecutionContext.current().getInvocation()!=null && ApplicationContextProvider.getApplicationContext()!=null) {
+			ApplicationContextProvider.getApplicationContext().getBean(ReportWriter.class).end(ExecutionContext.current().getInvocation());
+		}
+		ExecutionContext.clear();
+	}
+
+	/**
+	 * Wait for the async verifications of the test until the test deadline, or the
+	 * verification.timeout.millis property if the test has no timeout.
+	 * Verifications still running at the deadline are cancelled and the test is failed.
+	 * @param verifications futures of the session, cleared after waiting
+	 * @param testResult the result of the @Test
+	 */
+	private void awaitVerifications(List<Future<?>> verifications, ITestResult testResult) {
+		long timeout = ExecutionContext.current().remainingMillis();
+		if(timeout == Long.MAX_VALUE) {
+			timeout = ApplicationContextProvider.getApplicationContext().getEnvironment().getProperty("verification.timeout.millis", Long.class, VERIFICATION_TIMEOUT);
+		}
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(timeout, 0));
+		int timedOut = 0;
+		for(Future<?> verification : verifications){
+			try {
+				verification.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+			} catch (TimeoutException e) {
+				verification.cancel(true);
+				timedOut++;
+			} catch (InterruptedException e) {
+				verification.cancel(true);
+				timedOut++;
+				deadline = System.nanoTime();
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException | CancellationException e) {
+				//failures are collected by the assertion
+			}
+		}
+		verifications.clear();
+		if(timedOut > 0) {
+			String message = timedOut+" async verifications of @Test "+testResult.getName()+" did not complete within "+timeout+" ms and were cancelled";
+			log.error(message);
+			ApplicationContextProvider.getApplicationContext().getBean(LogUtils.class).error(message);
+			testResult.setStatus(ITestResult.FAILURE);
+			testResult.setThrowable(new AssertionError(message));
+		}
 	}
 
 	/**
@@ -28,12 +28,11 @@ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.automation.seletest.core.listeners;
 
 import java.io.File;
+import java.util.List;
 
 import lombok.extern.slf4j.Slf4j;
 
-import org.openqa.selenium.logging.LogEntries;
-import org.openqa.selenium.logging.LogEntry;
-import org.openqa.selenium.logging.LogType;
+import org.apache.commons.lang3.StringUtils;
 import org.testng.ITestContext;
 import org.testng.ITestListener;
 import org.testng.ITestNGMethod;
@@ -41,9 +40,11 @@ import org.testng.ITestResult;
 import org.testng.Reporter;
 
 import com.automation.seletest.core.selenium.threads.SessionContext;
-import com.automation.seletest.core.services.factories.StrategyFactory;
-import com.automation.seletest.core.services.utilities.FilesUtils;
-import com.automation.seletest.core.services.utilities.MailUtils;
+import com.automation.seletest.core.services.screenshots.FrameRecorder;
+import com.automation.seletest.core.services.utilities.ConsoleLogCollector;
+import com.automation.seletest.core.services.utilities.EventLog;
+import com.automation.seletest.core.services.utilities.MailNotificationQueue;
+import com.automation.seletest.core.services.utilities.ReportWriter;
 import com.automation.seletest.core.spring.ApplicationContextProvider;
 
 /**
@@ -60,16 +61,27 @@ public class TestListener implements ITestListener{
 	/**Logs directory*/
 	private static final String logs="/html/Logs";
 
+	/**Max time (millis) to wait for client logs to be written on failure*/
+	private static final long CONSOLE_FLUSH_TIMEOUT=5000;
+
+	/**Max client log entries included in failure notifications*/
+	private static final int CONSOLE_MAIL_ENTRIES=20;
+
 	@Override
 	public void onStart(ITestContext testContext) {
 		log.info("Suite: "+testContext.getSuite().getName()+" started at: "+testContext.getStartDate());
 		createDirectory(new File(testContext.getSuite().getOutputDirectory()).getParent()+screenShots);
 		createDirectory(new File(testContext.getSuite().getOutputDirectory()).getParent()+logs);
+		ApplicationContextProvider.getApplicationContext().getBean(ReportWriter.class).setDirectory(new File(new File(testContext.getSuite().getOutputDirectory()).getParent()+logs));
+		ApplicationContextProvider.getApplicationContext().getBean(EventLog.class).setDirectory(new File(new File(testContext.getSuite().getOutputDirectory()).getParent()+logs), testContext.getSuite().getName());
+		ApplicationContextProvider.getApplicationContext().getBean(ConsoleLogCollector.class).setDirectory(new File(new File(testContext.getSuite().getOutputDirectory()).getParent()+logs));
 	}
 
 	@Override
 	public void onFinish(ITestContext context) {
 		log.info("Suite: "+context.getSuite().getName()+" ended at: "+context.getEndDate());
+		ApplicationContextProvider.getApplicationContext().getBean(ReportWriter.class).flush();
+		ApplicationContextProvider.getApplicationContext().getBean(EventLog.class).flush();
 
 		//Remove the passed configuration methods from the report
 		for(ITestNGMethod m:context.getPassedConfigurations().getAllMethods()){
@@ -106,29 +118,48 @@ public class TestListener implements ITestListener{
 	@Override
 	public void onTestFailure(ITestResult testResult) {
 		log.debug("Test "+ testResult.getName()+" failed!!!");
+		try {
+			int frames=ApplicationContextProvider.getApplicationContext().getBean(FrameRecorder.class).persist(SessionContext.getSession());
+			log.debug("{} frames captured before failure of the @Test {}", frames, testResult.getName());
+		}
+		catch(Exception ex) {
+			log.error("Exception trying to persist frames: {}",ex.getMessage());
+		}
 		try {
 			log.debug("Collect client logs after failure of the @Test {}", testResult.getMethod());
-			LogEntries entries=ApplicationContextProvider.getApplicationContext().getBean(StrategyFactory.class).getControllerStrategy(SessionContext.getSession().getControllerStrategy()).logs(LogType.BROWSER);
-			StringBuilder list=new StringBuilder();
-			for (LogEntry entry : entries) {
-				list.append(entry.getMessage()).append("\n");
+			ConsoleLogCollector console=ApplicationContextProvider.getApplicationContext().getBean(ConsoleLogCollector.class);
+			String invocation=testResult.getAttribute("invocation")!=null ? (String) testResult.getAttribute("invocation") : testResult.getName();
+			console.collect(invocation, "failure", true);
+			console.flush(CONSOLE_FLUSH_TIMEOUT);
+			if(console.logFile(invocation).exists()) {
+				Reporter.log("<p class=\"testOutput\"><a href=\"Logs/"+ConsoleLogCollector.LOGS_PREFIX+invocation+".html\">Client Logs<a/></p>");
 			}
-			ApplicationContextProvider.getApplicationContext().getBean(FilesUtils.class).createHTML("Logs for Client", list.toString(), "Logs_"+testResult.getName());
-			Reporter.log("<p class=\"testOutput\"><a href=\"Logs/Logs_"+testResult.getName()+".html\">Client Logs<a/></p>");
 		}
 		catch(Exception ex) {
 			log.error("Exception trying to collect client logs: {}",ex.getMessage());
 		}
 
 		if(System.getProperty("email")!=null) {
-			log.debug("Send email notification with failure of the @Test to address {} ", System.getProperty("email"));
-			ApplicationContextProvider.getApplicationContext().getBean(MailUtils.class).sendMail(System.getProperty("email"),"Failure on test: "+testResult.getName(),"Exception occured is: "+testResult.getThrowable().getMessage());
+			log.debug("Queue email notification with failure of the @Test to address {} ", System.getProperty("email"));
+			String body="Exception occured is: "+testResult.getThrowable().getMessage();
+			try {
+				List<String> recent=ApplicationContextProvider.getApplicationContext().getBean(ConsoleLogCollector.class).recent(SessionContext.getSession(), CONSOLE_MAIL_ENTRIES);
+				if(!recent.isEmpty()) {
+					body+="\nLatest client logs:\n"+StringUtils.join(recent, "\n");
+				}
+			}
+			catch(Exception ex) {}
+			ApplicationContextProvider.getApplicationContext().getBean(MailNotificationQueue.class).notifyFailure(System.getProperty("email"),"Failure on test: "+testResult.getName(),body);
 		}
 	}
 
 	@Override
 	public void onTestStart(ITestResult result) {
 		log.debug("Test "+ result.getName()+" started!!!");
+		try {
+			ApplicationContextProvider.getApplicationContext().getBean(FrameRecorder.class).clear(SessionContext.getSession());
+		}
+		catch(Exception ex) {}
 	}
 
 	@Override
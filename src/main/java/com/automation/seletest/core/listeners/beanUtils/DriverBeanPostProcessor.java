@@ -69,7 +69,7 @@ public class DriverBeanPostProcessor implements BeanPostProcessor{
 
         if(result!=null) {
             browserType=Reporter.getCurrentTestResult().getMethod().getTestClass().getXmlTest().getAllParameters().get(env.getProperty("browser"));
-            clientLogs=Reporter.getCurrentTestResult().getMethod().getTestClass().getXmlTest().getAllParameters().get(env.getProperty("logs"));
+            clientLogs=Reporter.getCurrentTestResult().getMethod().getTestClass().getXmlTest().getAllParameters().get(env.getProperty("client_logs"));
         }
 
         if(bean instanceof DesiredCapabilities) {
@@ -63,7 +63,6 @@ import org.springframework.context.annotation.PropertySource;
 import org.springframework.context.annotation.PropertySources;
 import org.springframework.context.annotation.Scope;
 import org.springframework.core.env.Environment;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import com.automation.setest.groovy.configuration.WebDriverOptions;
 import com.opera.core.systems.OperaDriver;
@@ -168,21 +167,6 @@ public class ConfigurationDriver {
         return new FirefoxDriver(capabilities);
     }
 
-    /**
-     * The defaultTaskExecutor for thread management
-     * @return ThreadPoolTaskExecutor the default thread pool task executor
-     */
-    @Bean(name="SeletestTaskExecutor")
-    @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
-    public ThreadPoolTaskExecutor defaultTaskExecutor() {
-        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
-        taskExecutor.setThreadNamePrefix("Seletest Thread Pool - ");
-        taskExecutor.setCorePoolSize(10);
-        taskExecutor.setQueueCapacity(10);
-        taskExecutor.setMaxPoolSize(20);
-        return taskExecutor;
-    }
-
     /**
      * Internet Explorer bean
      * @param capabilities Desirercapabilities for WebDriver
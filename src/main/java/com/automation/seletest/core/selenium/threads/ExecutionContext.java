@@ -0,0 +1,172 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.selenium.threads;
+
+import java.util.concurrent.TimeUnit;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import org.testng.Reporter;
+
+/**
+ * Lightweight execution context per thread, carrying the state the advice stack needs
+ * (verification flag, current step, deadline and session) without TestNG lookups.
+ * Asynchronous tasks inherit a copy of the context of the submitting thread via {@link #capture()} and {@link #attach(ExecutionContext)}.
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+public class ExecutionContext {
+
+    /**Context of the current thread*/
+    private static final ThreadLocal<ExecutionContext> context = new ThreadLocal<ExecutionContext>() {
+        @Override
+        protected ExecutionContext initialValue() {
+            return new ExecutionContext();
+        }
+    };
+
+    /**True while a verification method is executed*/
+    @Getter @Setter
+    boolean verification;
+
+    /**The name of the test executed*/
+    @Getter @Setter
+    String test;
+
+    /**Id of the test invocation, unique per data row and retry, keys the report of the invocation*/
+    @Getter @Setter
+    String invocation;
+
+    /**The parameters of the test invocation*/
+    @Getter @Setter
+    Object[] parameters;
+
+    /**The current step (command) executed*/
+    @Getter @Setter
+    String step;
+
+    /**Deadline in nanoTime, 0 if there is no deadline*/
+    @Getter
+    long deadline;
+
+    /**The session the thread works for*/
+    @Setter
+    SessionProperties<?> session;
+
+    /**
+     * Context of the current thread
+     * @return ExecutionContext instance
+     */
+    public static ExecutionContext current() {
+        return context.get();
+    }
+
+    /**
+     * Snapshot of the context of the current thread, to be attached to another thread
+     * @return ExecutionContext copy
+     */
+    public static ExecutionContext capture() {
+        ExecutionContext current = context.get();
+        ExecutionContext copy = new ExecutionContext();
+        copy.verification = current.verification;
+        copy.test = current.test;
+        copy.invocation = current.invocation;
+        copy.parameters = current.parameters;
+        copy.step = current.step;
+        copy.deadline = current.deadline;
+        copy.session = current.session;
+        return copy;
+    }
+
+    /**
+     * Attach a context to the current thread
+     * @param executionContext ExecutionContext to attach
+     * @return the previous context of the thread, to be restored with attach
+     */
+    public static ExecutionContext attach(ExecutionContext executionContext) {
+        ExecutionContext previous = context.get();
+        context.set(executionContext);
+        return previous;
+    }
+
+    /**
+     * Start a new context for the current thread
+     * @param session SessionProperties of the thread
+     * @param timeoutMillis timeout in millis, 0 for no deadline
+     * @return the new ExecutionContext
+     */
+    public static ExecutionContext start(SessionProperties<?> session, long timeoutMillis) {
+        ExecutionContext executionContext = new ExecutionContext();
+        executionContext.session = session;
+        executionContext.setTimeout(timeoutMillis);
+        context.set(executionContext);
+        return executionContext;
+    }
+
+    /**
+     * Remove the context of the current thread
+     */
+    public static void clear() {
+        context.remove();
+    }
+
+    /**
+     * Session of the context, falls back to the session of the current test result
+     * @return SessionProperties instance or null if there is no active session
+     */
+    public SessionProperties<?> getSession() {
+        if(session == null && Reporter.getCurrentTestResult() != null) {
+            return SessionContext.getSession();
+        }
+        return session;
+    }
+
+    /**
+     * Set deadline relative to now
+     * @param timeoutMillis timeout in millis, 0 for no deadline
+     */
+    public void setTimeout(long timeoutMillis) {
+        deadline = timeoutMillis > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis) : 0;
+    }
+
+    /**
+     * Remaining time until deadline
+     * @return remaining millis, Long.MAX_VALUE if there is no deadline
+     */
+    public long remainingMillis() {
+        return deadline == 0 ? Long.MAX_VALUE : TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+    }
+
+    /**
+     * Defines if deadline has passed
+     * @return true if deadline has passed
+     */
+    public boolean isExpired() {
+        return deadline != 0 && deadline - System.nanoTime() <= 0;
+    }
+}
@@ -34,6 +34,7 @@ import io.appium.java_client.TouchAction;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import lombok.Getter;
 import lombok.Setter;
@@ -45,8 +46,12 @@ import org.openqa.selenium.remote.RemoteWebDriver;
 
 import com.automation.seletest.core.selenium.configuration.SessionControl;
 import com.automation.seletest.core.selenium.webAPI.WebController.CloseSession;
+import com.automation.seletest.core.services.actions.SingleFlight;
+import com.automation.seletest.core.services.screenshots.FrameBuffer;
+import com.automation.seletest.core.services.utilities.ConsoleLogBuffer;
 import com.automation.seletest.core.services.utilities.PerformanceUtils;
 import com.automation.seletest.core.testNG.assertions.Assert;
+import com.automation.seletest.core.testNG.assertions.DomSnapshot;
 import com.thoughtworks.selenium.Selenium;
 
 
@@ -111,6 +116,26 @@ public class SessionProperties<T extends RemoteWebDriver> {
     @Getter @Setter
     List<WebElement> webElements;
 
+    /**Last frames captured in this session*/
+    @Getter @Setter
+    FrameBuffer frames;
+
+    /**Latest browser console entries of this session*/
+    @Getter @Setter
+    ConsoleLogBuffer consoleLogs;
+
+    /**DOM snapshot evaluated by verifications instead of the browser, null if not set*/
+    @Getter @Setter
+    volatile DomSnapshot snapshot;
+
+    /**Retries consumed by this session*/
+    @Getter
+    final AtomicInteger retries = new AtomicInteger();
+
+    /**Wait conditions in flight, shared by concurrent identical requests*/
+    @Getter
+    final SingleFlight inFlight = new SingleFlight();
+
     /**
      * Initialize objects per session and close session!!!
      */
@@ -27,20 +27,15 @@ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.automation.seletest.core.selenium.webAPI;
 
 import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
-import javax.imageio.ImageIO;
-
 import lombok.extern.slf4j.Slf4j;
 
 import org.apache.commons.codec.binary.Base64;
-import org.apache.commons.io.FileUtils;
 import org.openqa.selenium.Cookie;
 import org.openqa.selenium.Dimension;
 import org.openqa.selenium.Point;
@@ -54,6 +49,8 @@ import com.automation.seletest.core.services.annotations.Monitor;
 import com.automation.seletest.core.services.annotations.RetryFailure;
 import com.automation.seletest.core.services.annotations.WaitCondition;
 import com.automation.seletest.core.services.annotations.WaitCondition.waitFor;
+import com.automation.seletest.core.services.screenshots.Screenshot;
+import com.automation.seletest.core.services.screenshots.ScreenshotService;
 import com.automation.seletest.core.services.utilities.FilesUtils;
 import com.thoughtworks.selenium.DefaultSelenium;
 
@@ -71,6 +68,10 @@ public class SeleniumController<T extends DefaultSelenium> extends DriverBaseCon
     @Autowired
     FilesUtils fileService;
 
+    /**Screenshot writer*/
+    @Autowired
+    ScreenshotService screenshots;
+
     @Override
     public WebElement findElement(Object locator) {
         throw new UnsupportedOperationException("findElements(object locator) method is not supported for Selenium RC");
@@ -130,19 +131,8 @@ public class SeleniumController<T extends DefaultSelenium> extends DriverBaseCon
     @Monitor
     public SeleniumController takeScreenShot() throws IOException {
         String base64Screenshot = selenium().captureScreenshotToString();
-        byte[] decodedScreenshot = Base64.decodeBase64(base64Screenshot.getBytes());
-        FileOutputStream fos = null;
-        File screenShotFrame = fileService.createScreenshotFile();
-        try {
-            fos = new FileOutputStream(screenShotFrame);
-            fos.write(decodedScreenshot);
-        } finally {
-            if (null != fos) {
-                fos.close();
-            }
-            fileService.reportScreenshot(screenShotFrame);
-
-        }
+        Screenshot screenshot = screenshots.store(Base64.decodeBase64(base64Screenshot.getBytes()));
+        fileService.reportScreenshot(screenshot.getFile());
         return this;
     }
 
@@ -154,31 +144,43 @@ public class SeleniumController<T extends DefaultSelenium> extends DriverBaseCon
     @WaitCondition(waitFor.VISIBILITY)
     @JSHandle
     public SeleniumController takeScreenShotOfElement(Object locator) throws IOException {
-        String base64Screenshot = selenium().captureScreenshotToString();
-        byte[] decodedScreenshot = Base64.decodeBase64(base64Screenshot.getBytes());
-        FileOutputStream fos = null;
-        File screenShotFrame = fileService.createScreenshotFile();
-        try {
-            fos = new FileOutputStream(screenShotFrame);
-            fos.write(decodedScreenshot);
-        } finally {
-            if (null != fos) {
-                fos.close();
-            }
-            BufferedImage  fullImg = ImageIO.read(screenShotFrame);
-            int px=(Integer) selenium().getElementPositionLeft((String)locator);
-            int py=(Integer) selenium().getElementPositionTop((String)locator);
-            int eleWidth = (Integer) selenium().getElementWidth((String)locator);
-            int eleHeight = (Integer) selenium().getElementHeight((String)locator);
-            BufferedImage eleScreenshot= fullImg.getSubimage(px, py, eleWidth, eleHeight);
-            ImageIO.write(eleScreenshot, "png", screenShotFrame);
-            File file = fileService.createScreenshotFile();
-            FileUtils.copyFile(screenShotFrame, file);
-            fileService.reportScreenshot(file);
+        return takeScreenShotOfElements(locator);
+    }
+
+    /* (non-Javadoc)
+     * @see com.automation.seletest.core.selenium.webAPI.WebController#takeScreenShotOfElements(java.lang.Object[])
+     */
+    @Override
+    @Monitor
+    public SeleniumController takeScreenShotOfElements(Object... locators) throws IOException {
+        BufferedImage fullImg = screenshots.decode(Base64.decodeBase64(selenium().captureScreenshotToString().getBytes()));
+        for(Object locator : locators) {
+            int px=selenium().getElementPositionLeft((String)locator).intValue();
+            int py=selenium().getElementPositionTop((String)locator).intValue();
+            int eleWidth = selenium().getElementWidth((String)locator).intValue();
+            int eleHeight = selenium().getElementHeight((String)locator).intValue();
+            Screenshot screenshot = screenshots.store(screenshots.crop(fullImg, px, py, eleWidth, eleHeight));
+            fileService.reportScreenshot(screenshot.getFile());
         }
         return this;
     }
 
+    /* (non-Javadoc)
+     * @see com.automation.seletest.core.selenium.webAPI.WebController#captureScreenShot(java.lang.Object)
+     */
+    @Override
+    public BufferedImage captureScreenShot(Object locator) throws IOException {
+        BufferedImage fullImg = screenshots.decode(Base64.decodeBase64(selenium().captureScreenshotToString().getBytes()));
+        if(locator == null) {
+            return fullImg;
+        }
+        return screenshots.crop(fullImg,
+                selenium().getElementPositionLeft((String)locator).intValue(),
+                selenium().getElementPositionTop((String)locator).intValue(),
+                selenium().getElementWidth((String)locator).intValue(),
+                selenium().getElementHeight((String)locator).intValue());
+    }
+
     /* (non-Javadoc)
      * @see com.automation.seletest.core.selenium.webAPI.interfaces.ElementController#getText(java.lang.Object)
      */
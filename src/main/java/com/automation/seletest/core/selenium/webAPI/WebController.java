@@ -26,6 +26,7 @@ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 package com.automation.seletest.core.selenium.webAPI;
 
+import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.util.List;
@@ -113,6 +114,22 @@ public interface WebController<T>{
      */
     <T> T takeScreenShotOfElement(Object locator) throws IOException;
 
+    /**
+     * Take screenshots of several elements from a single screenshot of the page
+     * @param locators Object locators
+     * @throws IOException
+     * @return WebController
+     */
+    <T> T takeScreenShotOfElements(Object... locators) throws IOException;
+
+    /**
+     * Capture screenshot in memory without reporting it
+     * @param locator Object locator of element, null for the whole page
+     * @throws IOException
+     * @return BufferedImage screenshot
+     */
+    BufferedImage captureScreenShot(Object locator) throws IOException;
+
 
     /**
      * Returns text of element
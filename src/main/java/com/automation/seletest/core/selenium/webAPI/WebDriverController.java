@@ -27,7 +27,6 @@ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.automation.seletest.core.selenium.webAPI;
 
 
-import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
@@ -37,9 +36,6 @@ import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
-import javax.imageio.ImageIO;
-
-import org.apache.commons.io.FileUtils;
 import org.openqa.selenium.By;
 import org.openqa.selenium.Cookie;
 import org.openqa.selenium.Dimension;
@@ -63,7 +59,10 @@ import com.automation.seletest.core.services.annotations.Monitor;
 import com.automation.seletest.core.services.annotations.RetryFailure;
 import com.automation.seletest.core.services.annotations.WaitCondition;
 import com.automation.seletest.core.services.annotations.WaitCondition.waitFor;
+import com.automation.seletest.core.services.screenshots.Screenshot;
+import com.automation.seletest.core.services.screenshots.ScreenshotService;
 import com.automation.seletest.core.services.utilities.FilesUtils;
+import com.automation.seletest.core.services.utilities.PerformanceUtils;
 
 /**
  * This class contains the implementation of WebDriver 2 API
@@ -80,10 +79,18 @@ public class WebDriverController<T extends RemoteWebDriver> extends DriverBaseCo
     @Autowired
     FilesUtils fileService;
 
+    /**Screenshot writer*/
+    @Autowired
+    ScreenshotService screenshots;
+
     @Override
     @Monitor
     @RetryFailure(retryCount=3)
     public WebDriverController goToTargetHost(String url) {
+        PerformanceUtils performance=SessionContext.getSession().getPerformance();
+        if(performance!=null) {
+            performance.newPage(url);
+        }
         webDriver().get(url);
         return this;
     }
@@ -127,10 +134,8 @@ public class WebDriverController<T extends RemoteWebDriver> extends DriverBaseCo
     @Override
     @Monitor
     public WebDriverController takeScreenShot() throws IOException{
-        File scrFile = webDriver().getScreenshotAs(OutputType.FILE);
-        File file = fileService.createScreenshotFile();
-        FileUtils.copyFile(scrFile, file);
-        fileService.reportScreenshot(file);
+        Screenshot screenshot = screenshots.store(webDriver().getScreenshotAs(OutputType.BYTES));
+        fileService.reportScreenshot(screenshot.getFile());
         return this;
     }
 
@@ -138,21 +143,49 @@ public class WebDriverController<T extends RemoteWebDriver> extends DriverBaseCo
     @Monitor
     @WaitCondition(waitFor.VISIBILITY)
     public WebDriverController takeScreenShotOfElement(Object locator) throws IOException {
-        File screenshot = webDriver().getScreenshotAs(OutputType.FILE);
-        BufferedImage  fullImg = ImageIO.read(screenshot);
-        WebElement element=SessionContext.getSession().getWebElement();
-        Point point = element.getLocation();
-        int eleWidth = element.getSize().getWidth();
-        int eleHeight = element.getSize().getHeight();
-        Rectangle elementScreen=new Rectangle(eleWidth, eleHeight);
-        BufferedImage eleScreenshot= fullImg.getSubimage(point.getX(), point.getY(), elementScreen.width, elementScreen.height);
-        ImageIO.write(eleScreenshot, "png", screenshot);
-        File file = fileService.createScreenshotFile();
-        FileUtils.copyFile(screenshot, file);
-        fileService.reportScreenshot(file);
+        BufferedImage fullImg = screenshots.decode(webDriver().getScreenshotAs(OutputType.BYTES));
+        reportScreenShotOfElement(fullImg, SessionContext.getSession().getWebElement());
         return this;
     }
 
+    @Override
+    @Monitor
+    public WebDriverController takeScreenShotOfElements(Object... locators) throws IOException {
+        List<WebElement> elements = new ArrayList<>(locators.length);
+        for(Object locator : locators) {
+            elements.add((WebElement) waitController().waitForElementVisibility(locator));
+        }
+        BufferedImage fullImg = screenshots.decode(webDriver().getScreenshotAs(OutputType.BYTES));
+        for(WebElement element : elements) {
+            reportScreenShotOfElement(fullImg, element);
+        }
+        return this;
+    }
+
+    @Override
+    public BufferedImage captureScreenShot(Object locator) throws IOException {
+        WebElement element = locator == null ? null : (WebElement) waitController().waitForElementVisibility(locator);
+        BufferedImage fullImg = screenshots.decode(webDriver().getScreenshotAs(OutputType.BYTES));
+        if(element == null) {
+            return fullImg;
+        }
+        Point point = element.getLocation();
+        Dimension size = element.getSize();
+        return screenshots.crop(fullImg, point.getX(), point.getY(), size.getWidth(), size.getHeight());
+    }
+
+    /**
+     * Crop element from screenshot of page and report it
+     * @param fullImg BufferedImage screenshot of page
+     * @param element WebElement
+     */
+    private void reportScreenShotOfElement(BufferedImage fullImg, WebElement element) {
+        Point point = element.getLocation();
+        Dimension size = element.getSize();
+        Screenshot screenshot = screenshots.store(screenshots.crop(fullImg, point.getX(), point.getY(), size.getWidth(), size.getHeight()));
+        fileService.reportScreenshot(screenshot.getFile());
+    }
+
     @Override
     @JSHandle
     public WebElement findElement(Object locator) {
@@ -0,0 +1,123 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.actions;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.Getter;
+
+/**
+ * Coalesces concurrent identical calls of one session into a single in-flight evaluation.
+ * The first caller runs the call, callers arriving while it runs wait for and share its result or exception.
+ * Nothing is kept after completion; calls issued after a change of document (see {@link #newDocument()})
+ * are never coalesced with calls issued before it.
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+public class SingleFlight {
+
+    /**
+     * A call that may throw anything, like a proceeding join point
+     */
+    public interface Call {
+        Object call() throws Throwable;
+    }
+
+    /**In-flight calls per operation, document and arguments*/
+    private final ConcurrentMap<List<Object>, FutureTask<Object>> calls = new ConcurrentHashMap<>();
+
+    /**Generation of the document, changed by actions on the page*/
+    private final AtomicLong document = new AtomicLong();
+
+    /**Calls that were evaluated*/
+    @Getter
+    private final AtomicLong executed = new AtomicLong();
+
+    /**Calls that shared an in-flight evaluation*/
+    @Getter
+    private final AtomicLong shared = new AtomicLong();
+
+    /**
+     * Mark that the page may have changed
+     */
+    public void newDocument() {
+        document.incrementAndGet();
+    }
+
+    /**
+     * Run the call or join an identical one in flight
+     * @param operation identity of the operation, e.g. method signature
+     * @param args arguments of the operation, compared with equals
+     * @param call the evaluation
+     * @return Object result of the call
+     * @throws Throwable thrown by the call
+     */
+    public Object execute(String operation, Object[] args, final Call call) throws Throwable {
+        List<Object> key = Arrays.<Object>asList(operation, document.get(), Arrays.asList(args));
+        FutureTask<Object> task = new FutureTask<>(new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                try {
+                    return call.call();
+                } catch (Exception | Error e) {
+                    throw e;
+                } catch (Throwable t) {
+                    throw new UndeclaredThrowableException(t);
+                }
+            }
+        });
+        FutureTask<Object> inFlight = calls.putIfAbsent(key, task);
+        if(inFlight != null) {
+            shared.incrementAndGet();
+            return await(inFlight);
+        }
+        executed.incrementAndGet();
+        try {
+            task.run();
+            return await(task);
+        } finally {
+            calls.remove(key, task);
+        }
+    }
+
+    private Object await(FutureTask<Object> task) throws Throwable {
+        try {
+            return task.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof UndeclaredThrowableException ? ((UndeclaredThrowableException) cause).getUndeclaredThrowable() : cause;
+        }
+    }
+}
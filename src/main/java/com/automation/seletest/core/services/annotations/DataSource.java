@@ -52,11 +52,11 @@ public @interface DataSource {
     String filePath() default "";
 
     /**
-     * Enum for data type
+     * Enum for data type, CSV_ROWS and XLSX stream one invocation per row with the header as keys
      * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
      *
      */
-    public enum Data{CSV,PROPERTIES,EXCEL}
+    public enum Data{CSV,PROPERTIES,EXCEL,XLSX,CSV_ROWS}
 
     /**
      * Data type to be used
@@ -64,6 +64,12 @@ public @interface DataSource {
      */
     Data dataType() default Data.PROPERTIES;
 
+    /**
+     * The sheet to read for xlsx data sources
+     * @return sheet name, empty for the first sheet
+     */
+    String sheet() default "";
+
 
 
 
@@ -45,10 +45,22 @@ public @interface RetryFailure {
 
     /**
      * sleepMillis
-     * @return The thread sleep before reexecuting invoked method
+     * @return The thread sleep before the first reexecution of invoked method
      */
     int sleepMillis() default 1000;
 
+    /**
+     * backoffMultiplier
+     * @return the multiplier applied to the thread sleep after every failed attempt
+     */
+    double backoffMultiplier() default 2;
+
+    /**
+     * maxSleepMillis
+     * @return the upper limit of the thread sleep between attempts
+     */
+    int maxSleepMillis() default 8000;
+
     /**
      * retryCount
      * @return the number of method invocation count
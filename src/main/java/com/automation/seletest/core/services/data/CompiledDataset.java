@@ -0,0 +1,206 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import lombok.Getter;
+
+/**
+ * Read only view of a data set compiled by {@link DatasetCompiler}.
+ * The file is memory mapped and rows are materialized only when requested,
+ * dictionary values are decoded once on first use.
+ * Reads use absolute positions so one instance can be shared by threads.
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+public final class CompiledDataset {
+
+    private final ByteBuffer buffer;
+
+    /**Number of columns*/
+    @Getter
+    private final int columns;
+
+    /**Number of rows*/
+    @Getter
+    private final int rows;
+
+    /**Column names*/
+    private final String[] header;
+
+    /**Decoded dictionary values, filled lazily*/
+    private final String[] decoded;
+
+    private final int offsetsAt;
+
+    private final int bytesAt;
+
+    private final int dataAt;
+
+    private CompiledDataset(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if(buffer.getInt(0) != DatasetCompiler.MAGIC) {
+            throw new IOException("Not a compiled data set");
+        }
+        columns = buffer.getInt(4);
+        rows = buffer.getInt(8);
+        decoded = new String[buffer.getInt(12)];
+        offsetsAt = 16 + 4 * columns;
+        bytesAt = offsetsAt + 4 * (decoded.length + 1);
+        dataAt = bytesAt + buffer.getInt(bytesAt - 4);
+        header = new String[columns];
+        for(int c = 0; c < columns; c++) {
+            header[c] = value(buffer.getInt(16 + 4 * c));
+        }
+    }
+
+    /**
+     * Map a compiled file into memory
+     * @param file
+     * @return CompiledDataset
+     * @throws IOException
+     */
+    public static CompiledDataset open(File file) throws IOException {
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new CompiledDataset(mapped);
+        }
+    }
+
+    /**
+     * @return copy of the column names
+     */
+    public String[] getHeader() {
+        return header.clone();
+    }
+
+    /**
+     * Values of a row in column order
+     * @param row
+     * @return String[]
+     */
+    public String[] values(int row) {
+        if(row < 0 || row >= rows) {
+            throw new IndexOutOfBoundsException("Row "+row+" of "+rows);
+        }
+        String[] values = new String[columns];
+        for(int c = 0; c < columns; c++) {
+            values[c] = value(buffer.getInt(dataAt + 4 * (c * rows + row)));
+        }
+        return values;
+    }
+
+    /**
+     * Row keyed by column name
+     * @param row
+     * @return unmodifiable Map
+     */
+    public Map<String, String> row(int row) {
+        String[] values = values(row);
+        Map<String, String> map = new LinkedHashMap<>(columns * 2);
+        for(int c = 0; c < columns; c++) {
+            map.put(header[c], values[c]);
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * All rows in column order, used for positional excel tables
+     * @return String[][]
+     */
+    public String[][] table() {
+        String[][] table = new String[rows][];
+        for(int r = 0; r < rows; r++) {
+            table[r] = values(r);
+        }
+        return table;
+    }
+
+    /**
+     * Rows for a data provider, each materialized when pulled
+     * @return Iterator<Object[]> with a Map per row
+     */
+    public Iterator<Object[]> iterator() {
+        return new Iterator<Object[]>() {
+            private int cursor;
+
+            @Override
+            public synchronized boolean hasNext() {
+                return cursor < rows;
+            }
+
+            @Override
+            public Object[] next() {
+                int row;
+                synchronized (this) {
+                    if(cursor >= rows) {
+                        throw new NoSuchElementException();
+                    }
+                    row = cursor++;
+                }
+                return new Object[] { row(row) };
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("Data rows are read only");
+            }
+        };
+    }
+
+    /**
+     * Decode a dictionary value, racing threads decode the same immutable String
+     * @param id
+     * @return String
+     */
+    private String value(int id) {
+        String value = decoded[id];
+        if(value == null) {
+            int start = buffer.getInt(offsetsAt + 4 * id);
+            int end = buffer.getInt(offsetsAt + 4 * (id + 1));
+            byte[] bytes = new byte[end - start];
+            ByteBuffer slice = buffer.duplicate();
+            slice.position(bytesAt + start);
+            slice.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+            decoded[id] = value;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,174 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.data;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import org.testng.SkipException;
+
+import au.com.bytecode.opencsv.CSVReader;
+
+/**
+ * Lazy CSV data source for TestNG data providers.
+ * The first line of the file is the header, every following line
+ * is returned as one invocation with a Map of header to value.
+ * Rows are read from disk only when requested so parallel data providers
+ * pull them on demand and memory stays flat regardless of file size.
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Slf4j
+public class CsvRowIterator implements Iterator<Object[]>, Closeable {
+
+    /**The csv file*/
+    @Getter
+    private final String filePath;
+
+    /**Column names from the header line*/
+    @Getter
+    private final String[] header;
+
+    /**Number of rows returned so far*/
+    @Getter
+    private long rows;
+
+    /**The underlying reader, null when exhausted*/
+    private CSVReader reader;
+
+    /**Next row read ahead for hasNext*/
+    private String[] next;
+
+    /**
+     * Open the csv file and read the header
+     * @param filePath path to the csv file
+     */
+    public CsvRowIterator(String filePath) {
+        this.filePath = filePath;
+        try {
+            reader = new CSVReader(new BufferedReader(new InputStreamReader(new FileInputStream(filePath), "UTF-8")));
+            String[] first = reader.readNext();
+            if(first == null) {
+                throw new IOException("No header line found");
+            }
+            header = new String[first.length];
+            for(int i = 0; i < first.length; i++) {
+                header[i] = first[i].trim();
+            }
+            next = readAhead();
+            log.debug("CSV data source opened {} with columns {}", filePath, header.length);
+        } catch (IOException e) {
+            close();
+            log.error("Exception during loading test data sources: "+e);
+            throw new SkipException("Data not loaded for test execution!!!");
+        }
+    }
+
+    @Override
+    public synchronized boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public synchronized Object[] next() {
+        if(next == null) {
+            throw new NoSuchElementException("No more rows in "+filePath);
+        }
+        Map<String, String> row = toMap(header, next);
+        rows++;
+        next = readAhead();
+        return new Object[] { row };
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Data rows are read only");
+    }
+
+    /**
+     * Release the file handle, safe to call more than once
+     */
+    @Override
+    public synchronized void close() {
+        if(reader != null) {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                log.warn("Could not close csv data source {}: {}", filePath, e.getMessage());
+            }
+            reader = null;
+        }
+    }
+
+    /**
+     * Map a line to the header columns, missing trailing values are empty
+     * @param header
+     * @param line
+     * @return unmodifiable Map
+     */
+    static Map<String, String> toMap(String[] header, String[] line) {
+        Map<String, String> row = new LinkedHashMap<>(header.length * 2);
+        for(int i = 0; i < header.length; i++) {
+            row.put(header[i], i < line.length ? line[i] : "");
+        }
+        return Collections.unmodifiableMap(row);
+    }
+
+    /**
+     * Read the next non blank line, closing the file at end of input
+     * @return the line or null
+     */
+    private String[] readAhead() {
+        if(reader == null) {
+            return null;
+        }
+        try {
+            String[] line;
+            while((line = reader.readNext()) != null) {
+                if(line.length > 1 || !line[0].trim().isEmpty()) {
+                    return line;
+                }
+            }
+            log.debug("CSV data source {} exhausted after {} rows", filePath, rows);
+        } catch (IOException e) {
+            log.error("Reading csv data source {} stopped: {}", filePath, e.getMessage());
+        }
+        close();
+        return null;
+    }
+}
@@ -0,0 +1,314 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.data;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import org.testng.ISuiteResult;
+import org.testng.ITestContext;
+
+/**
+ * Splits data provider rows across JVM forks or machines.
+ * The shard is set with the shardCount and shardIndex system properties or suite parameters
+ * (system properties win); a row runs on the shard given by a stable hash of the test method
+ * and the row values modulo shardCount, so every runner selects the same split without coordination.
+ * Each shard writes a summary at the end of the suite, the summaries of all shards are merged with
+ * <pre>
+ * java -cp ... com.automation.seletest.core.services.data.DataShard &lt;summary dir&gt;
+ * </pre>
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Slf4j
+public final class DataShard {
+
+    /**Number of shards*/
+    public static final String SHARD_COUNT="shardCount";
+
+    /**Zero based index of this shard*/
+    public static final String SHARD_INDEX="shardIndex";
+
+    /**Rows seen and selected per data provider of this JVM*/
+    private static final ConcurrentMap<String, AtomicLong[]> rows = new ConcurrentHashMap<>();
+
+    /**Number of shards, 1 when sharding is off*/
+    @Getter
+    private final int count;
+
+    /**Index of this shard*/
+    @Getter
+    private final int index;
+
+    public DataShard(int count, int index) {
+        if(count < 1 || index < 0 || index >= count) {
+            throw new IllegalArgumentException("Invalid shard "+index+" of "+count);
+        }
+        this.count = count;
+        this.index = index;
+    }
+
+    /**
+     * The shard of this runner
+     * @param context test context with the suite parameters, may be null
+     * @return DataShard
+     */
+    public static DataShard of(ITestContext context) {
+        return new DataShard(Integer.parseInt(parameter(context, SHARD_COUNT, "1")), Integer.parseInt(parameter(context, SHARD_INDEX, "0")));
+    }
+
+    private static String parameter(ITestContext context, String name, String defaultValue) {
+        String value = System.getProperty(name);
+        if(value == null && context != null) {
+            value = context.getSuite().getParameter(name);
+        }
+        return value == null || value.trim().isEmpty() ? defaultValue : value.trim();
+    }
+
+    /**
+     * @return whether rows are split
+     */
+    public boolean isEnabled() {
+        return count > 1;
+    }
+
+    /**
+     * Whether a row of a test method runs on this shard
+     * @param method the test method
+     * @param row the data provider row
+     * @return boolean
+     */
+    public boolean accepts(Method method, Object[] row) {
+        if(!isEnabled()) {
+            return true;
+        }
+        //FNV-1a, stable across JVMs and platforms
+        int hash = 0x811c9dc5;
+        StringBuilder key = new StringBuilder(method.getDeclaringClass().getName()).append('.').append(method.getName());
+        for(Object value : row) {
+            key.append('\u001f').append(value instanceof Map ? new TreeMap<>((Map<?, ?>) value) : value);
+        }
+        for(byte b : key.toString().getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xff)) * 0x01000193;
+        }
+        return (hash & 0x7fffffff) % count == index;
+    }
+
+    /**
+     * Rows of this shard, filtered lazily as they are pulled
+     * @param method the test method
+     * @param source all rows
+     * @return Iterator<Object[]>
+     */
+    public Iterator<Object[]> filter(final Method method, final Iterator<Object[]> source) {
+        if(!isEnabled()) {
+            return source;
+        }
+        final AtomicLong[] counters = counters(method);
+        return new Iterator<Object[]>() {
+            private Object[] next;
+
+            @Override
+            public synchronized boolean hasNext() {
+                while(next == null && source.hasNext()) {
+                    Object[] row = source.next();
+                    counters[0].incrementAndGet();
+                    if(accepts(method, row)) {
+                        counters[1].incrementAndGet();
+                        next = row;
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public synchronized Object[] next() {
+                if(!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Object[] row = next;
+                next = null;
+                return row;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("Data rows are read only");
+            }
+        };
+    }
+
+    /**
+     * Rows of this shard
+     * @param method the test method
+     * @param source all rows
+     * @return Object[][]
+     */
+    public Object[][] filter(Method method, Object[][] source) {
+        if(!isEnabled() || source == null) {
+            return source;
+        }
+        AtomicLong[] counters = counters(method);
+        List<Object[]> selected = new ArrayList<>();
+        for(Object[] row : source) {
+            if(accepts(method, row)) {
+                selected.add(row);
+            }
+        }
+        counters[0].addAndGet(source.length);
+        counters[1].addAndGet(selected.size());
+        return selected.toArray(new Object[selected.size()][]);
+    }
+
+    private static AtomicLong[] counters(Method method) {
+        String name = method.getDeclaringClass().getName() + "." + method.getName();
+        AtomicLong[] counters = rows.get(name);
+        if(counters == null) {
+            rows.putIfAbsent(name, new AtomicLong[] { new AtomicLong(), new AtomicLong() });
+            counters = rows.get(name);
+        }
+        return counters;
+    }
+
+    /**
+     * Write the summary of this shard, rows per data provider and test results of the suite
+     * @param directory directory shared by the shard summaries
+     * @param context test context of the suite
+     * @return File the summary or null when sharding is off
+     * @throws IOException
+     */
+    public File writeSummary(File directory, ITestContext context) throws IOException {
+        if(!isEnabled()) {
+            return null;
+        }
+        Properties summary = new Properties();
+        summary.setProperty("shards", String.valueOf(index));
+        summary.setProperty("shard.count", String.valueOf(count));
+        for(Map.Entry<String, AtomicLong[]> entry : rows.entrySet()) {
+            summary.setProperty("rows." + entry.getKey() + ".seen", entry.getValue()[0].toString());
+            summary.setProperty("rows." + entry.getKey() + ".selected", entry.getValue()[1].toString());
+        }
+        long passed = 0, failed = 0, skipped = 0;
+        for(ISuiteResult result : context.getSuite().getResults().values()) {
+            passed += result.getTestContext().getPassedTests().size();
+            failed += result.getTestContext().getFailedTests().size();
+            skipped += result.getTestContext().getSkippedTests().size();
+        }
+        summary.setProperty("tests.passed", String.valueOf(passed));
+        summary.setProperty("tests.failed", String.valueOf(failed));
+        summary.setProperty("tests.skipped", String.valueOf(skipped));
+        if(!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create "+directory);
+        }
+        File file = new File(directory, "shard-" + index + "-of-" + count + ".properties");
+        try(Writer out = new FileWriter(file)) {
+            summary.store(out, "Seletest shard summary");
+        }
+        log.info("Shard {} of {} summary written to {}", index, count, file);
+        return file;
+    }
+
+    /**
+     * Merge shard summaries: rows seen are the same on every shard, selected rows and test results add up
+     * @param summaries summary files of all shards
+     * @return Map<String, String> merged summary
+     * @throws IOException
+     */
+    public static Map<String, String> merge(File... summaries) throws IOException {
+        Map<String, Long> totals = new TreeMap<>();
+        TreeSet<Integer> shards = new TreeSet<>();
+        String shardCount = "";
+        for(File file : summaries) {
+            Properties summary = new Properties();
+            try(Reader in = new FileReader(file)) {
+                summary.load(in);
+            }
+            shards.add(Integer.valueOf(summary.getProperty("shards")));
+            shardCount = summary.getProperty("shard.count");
+            for(String key : summary.stringPropertyNames()) {
+                if(key.startsWith("rows.") || key.startsWith("tests.")) {
+                    long value = Long.parseLong(summary.getProperty(key));
+                    Long total = totals.get(key);
+                    totals.put(key, total == null ? value : key.endsWith(".seen") ? Math.max(total, value) : total + value);
+                }
+            }
+        }
+        Map<String, String> merged = new TreeMap<>();
+        merged.put("shards", shards.toString());
+        merged.put("shard.count", shardCount);
+        for(Map.Entry<String, Long> total : totals.entrySet()) {
+            merged.put(total.getKey(), total.getValue().toString());
+        }
+        return merged;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if(args.length == 0) {
+            System.err.println("Usage: DataShard <summary dir>");
+            System.exit(1);
+        }
+        File[] summaries = new File(args[0]).listFiles();
+        List<File> files = new ArrayList<>();
+        for(File file : summaries == null ? new File[0] : summaries) {
+            if(file.getName().startsWith("shard-") && file.getName().endsWith(".properties")) {
+                files.add(file);
+            }
+        }
+        Map<String, String> merged = merge(files.toArray(new File[files.size()]));
+        for(Map.Entry<String, String> entry : merged.entrySet()) {
+            System.out.println(entry.getKey() + "=" + entry.getValue());
+        }
+        for(Map.Entry<String, String> entry : merged.entrySet()) {
+            if(entry.getKey().endsWith(".seen")) {
+                String selected = entry.getKey().replaceFirst("\\.seen$", ".selected");
+                if(!entry.getValue().equals(merged.get(selected))) {
+                    System.err.println("Missing rows for " + entry.getKey() + ": " + merged.get(selected) + " of " + entry.getValue() + " selected, check that all shards ran");
+                }
+            }
+        }
+    }
+}
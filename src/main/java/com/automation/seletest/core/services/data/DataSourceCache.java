@@ -0,0 +1,244 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Process wide cache of parsed data sources shared by all tests and threads.
+ * Entries are keyed by canonical path and type and are reloaded when the modification
+ * time of the file changes; concurrent requests for the same entry wait for a single load.
+ * Cached values must be immutable since they are handed to parallel tests.
+ * With datasource.watch enabled the directories of cached files are watched and
+ * entries are dropped on change instead of checking the modification time on every get.
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Slf4j
+@Component
+public class DataSourceCache {
+
+    /**
+     * Parses a data source file into an immutable value
+     * @param <T> type of the value
+     */
+    public interface Loader<T> {
+        T load(File file) throws Exception;
+    }
+
+    /** Environment instance*/
+    @Autowired
+    Environment env;
+
+    /**Entries per canonical path and type*/
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**Watched directories*/
+    private final ConcurrentMap<Path, WatchKey> directories = new ConcurrentHashMap<>();
+
+    /**Gets served from the cache*/
+    @Getter
+    private final AtomicLong hits = new AtomicLong();
+
+    /**Gets that loaded the file*/
+    @Getter
+    private final AtomicLong misses = new AtomicLong();
+
+    /**File watcher, null when watching is disabled*/
+    private WatchService watcher;
+
+    @PostConstruct
+    public void init() {
+        if(env.getProperty("datasource.watch", Boolean.class, false)) {
+            try {
+                watcher = FileSystems.getDefault().newWatchService();
+                Thread thread = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        watch();
+                    }
+                }, "SeletestFramework - data source watcher");
+                thread.setDaemon(true);
+                thread.start();
+            } catch (IOException e) {
+                log.warn("Data source watching not available, using modification times: {}", e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        if(watcher != null) {
+            watcher.close();
+        }
+    }
+
+    /**
+     * Get the cached value of a file, loading it on first use or when the file changed
+     * @param file the data source file
+     * @param type kind of value, different types of the same file are cached separately
+     * @param loader parses the file
+     * @return T the cached value
+     * @throws Exception thrown by the loader
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(File file, String type, final Loader<T> loader) throws Exception {
+        final File canonical = file.getCanonicalFile();
+        String key = canonical.getPath() + File.pathSeparator + type;
+        while(true) {
+            Entry entry = entries.get(key);
+            if(entry != null && (watcher != null || entry.modified == canonical.lastModified())) {
+                hits.incrementAndGet();
+                return (T) entry.value(key);
+            }
+            Entry loading = new Entry(canonical.lastModified(), new FutureTask<Object>(new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    return loader.load(canonical);
+                }
+            }));
+            if(entry == null ? entries.putIfAbsent(key, loading) == null : entries.replace(key, entry, loading)) {
+                misses.incrementAndGet();
+                register(canonical.getParentFile().toPath());
+                loading.task.run();
+                log.debug("Data source {} loaded as {}", canonical, type);
+                return (T) loading.value(key);
+            }
+        }
+    }
+
+    /**
+     * Drop all cached values of a file
+     * @param file
+     */
+    public void invalidate(File file) {
+        String prefix = file.getAbsolutePath() + File.pathSeparator;
+        for(String key : entries.keySet()) {
+            if(key.startsWith(prefix)) {
+                entries.remove(key);
+                log.debug("Data source {} invalidated", key);
+            }
+        }
+    }
+
+    /**
+     * Drop all cached values
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Start watching the directory of a cached file
+     * @param directory
+     */
+    private void register(Path directory) {
+        if(watcher != null && !directories.containsKey(directory)) {
+            try {
+                directories.putIfAbsent(directory, directory.register(watcher, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_CREATE));
+            } catch (IOException | ClosedWatchServiceException e) {
+                log.warn("Could not watch {}: {}", directory, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Invalidate entries of changed files until the watcher is closed
+     */
+    private void watch() {
+        try {
+            while(true) {
+                WatchKey key = watcher.take();
+                Path directory = (Path) key.watchable();
+                for(WatchEvent<?> event : key.pollEvents()) {
+                    if(event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        clear();
+                    } else {
+                        invalidate(directory.resolve((Path) event.context()).toFile());
+                    }
+                }
+                key.reset();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            log.debug("Data source watcher stopped");
+        }
+    }
+
+    /**
+     * A value loaded once for a modification time
+     */
+    private final class Entry {
+
+        private final long modified;
+
+        private final FutureTask<Object> task;
+
+        Entry(long modified, FutureTask<Object> task) {
+            this.modified = modified;
+            this.task = task;
+        }
+
+        /**
+         * Wait for the load, failed loads are removed so the next get retries
+         */
+        Object value(String key) throws Exception {
+            try {
+                return task.get();
+            } catch (ExecutionException e) {
+                entries.remove(key, this);
+                if(e.getCause() instanceof Exception) {
+                    throw (Exception) e.getCause();
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,259 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.data;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Compiles a data source (csv, xlsx, properties or an xls table) into the
+ * binary columnar format read by {@link CompiledDataset}.
+ * Every distinct value is stored once in a string dictionary and each column
+ * is a block of dictionary ids, one per row.
+ * <pre>
+ * java -cp ... com.automation.seletest.core.services.data.DatasetCompiler file.csv
+ * java -cp ... com.automation.seletest.core.services.data.DatasetCompiler file.xlsx [sheet]
+ * java -cp ... com.automation.seletest.core.services.data.DatasetCompiler file.xls sheet table
+ * </pre>
+ * The compiled file is written next to the source and is picked up by the
+ * data providers while it is newer than the source.
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+public final class DatasetCompiler {
+
+    /**Extension of compiled data sets*/
+    public static final String EXTENSION=".sds";
+
+    /**File signature "SDS1"*/
+    static final int MAGIC=0x53445331;
+
+    private DatasetCompiler() {}
+
+    public static void main(String[] args) throws Exception {
+        if(args.length == 0) {
+            System.err.println("Usage: DatasetCompiler <file.csv|file.properties|file.xlsx [sheet]|file.xls sheet table>");
+            System.exit(1);
+        }
+        long start = System.currentTimeMillis();
+        File compiled = compile(new File(args[0]), Arrays.copyOfRange(args, 1, args.length));
+        System.out.println("Compiled "+args[0]+" to "+compiled+" ("+compiled.length()+" bytes) in "+(System.currentTimeMillis() - start)+" ms");
+    }
+
+    /**
+     * Compiled file of a source, qualified by sheet and table when given
+     * @param source the source file
+     * @param qualifiers sheet and table names, empty values are skipped
+     * @return File next to the source
+     */
+    public static File compiledFile(File source, String... qualifiers) {
+        StringBuilder name = new StringBuilder(source.getName());
+        for(String qualifier : qualifiers) {
+            if(qualifier != null && !qualifier.isEmpty()) {
+                name.append('.').append(qualifier.replaceAll("[^A-Za-z0-9_-]", "_"));
+            }
+        }
+        return new File(source.getAbsoluteFile().getParentFile(), name.append(EXTENSION).toString());
+    }
+
+    /**
+     * Whether a compiled file exists and is newer than its source
+     * @param compiled
+     * @param source
+     * @return boolean
+     */
+    public static boolean isFresh(File compiled, File source) {
+        return compiled.isFile() && compiled.lastModified() >= source.lastModified();
+    }
+
+    /**
+     * Compile a source file
+     * @param source csv, properties, xlsx or xls file
+     * @param qualifiers sheet for xlsx, sheet and table for xls
+     * @return File the compiled data set
+     * @throws Exception
+     */
+    public static File compile(File source, String... qualifiers) throws Exception {
+        String path = source.getAbsolutePath();
+        String name = path.toLowerCase();
+        String sheet = qualifiers.length > 0 ? qualifiers[0] : "";
+        Columns columns;
+        if(name.endsWith(".csv")) {
+            try(CsvRowIterator rows = new CsvRowIterator(path)) {
+                columns = collect(rows.getHeader(), rows);
+            }
+        } else if(name.endsWith(".xlsx")) {
+            try(XlsxRowIterator rows = new XlsxRowIterator(path, sheet)) {
+                columns = collect(rows.getHeader(), rows);
+            }
+        } else if(name.endsWith(".properties")) {
+            Properties properties = new Properties();
+            try(FileReader in = new FileReader(source)) {
+                properties.load(in);
+            }
+            String[] keys = properties.stringPropertyNames().toArray(new String[0]);
+            Arrays.sort(keys);
+            columns = new Columns(keys);
+            String[] values = new String[keys.length];
+            for(int i = 0; i < keys.length; i++) {
+                values[i] = properties.getProperty(keys[i]);
+            }
+            columns.add(values);
+        } else if(name.endsWith(".xls") && qualifiers.length > 1) {
+            String[][] table = new ExcelWorkbookCache().table(path, sheet, qualifiers[1]);
+            String[] header = new String[table.length > 0 ? table[0].length : 0];
+            for(int i = 0; i < header.length; i++) {
+                header[i] = String.valueOf(i);
+            }
+            columns = new Columns(header);
+            for(String[] row : table) {
+                columns.add(row);
+            }
+        } else {
+            throw new IllegalArgumentException("Unsupported data source "+path);
+        }
+        File compiled = compiledFile(source, qualifiers);
+        File tmp = new File(compiled.getPath() + ".tmp");
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp), 1 << 16))) {
+            columns.write(out);
+        }
+        if(compiled.exists() && !compiled.delete() || !tmp.renameTo(compiled)) {
+            throw new IOException("Could not replace "+compiled);
+        }
+        return compiled;
+    }
+
+    /**
+     * Collect header keyed rows in header order
+     * @param header
+     * @param rows
+     * @return Columns
+     */
+    @SuppressWarnings("unchecked")
+    private static Columns collect(String[] header, Iterator<Object[]> rows) {
+        Columns columns = new Columns(header);
+        String[] values = new String[header.length];
+        while(rows.hasNext()) {
+            Map<String, String> row = (Map<String, String>) rows.next()[0];
+            for(int i = 0; i < header.length; i++) {
+                values[i] = row.get(header[i]);
+            }
+            columns.add(values);
+        }
+        return columns;
+    }
+
+    /**
+     * Dictionary encoded columns under construction
+     */
+    private static final class Columns {
+
+        private final Map<String, Integer> ids = new HashMap<>();
+
+        private final List<String> dictionary = new ArrayList<>();
+
+        private final int[] names;
+
+        private int[][] data;
+
+        private int rows;
+
+        Columns(String[] header) {
+            names = new int[header.length];
+            for(int i = 0; i < header.length; i++) {
+                names[i] = id(header[i]);
+            }
+            data = new int[header.length][1024];
+        }
+
+        void add(String[] values) {
+            if(data.length > 0 && rows == data[0].length) {
+                for(int c = 0; c < data.length; c++) {
+                    data[c] = Arrays.copyOf(data[c], rows * 2);
+                }
+            }
+            for(int c = 0; c < data.length; c++) {
+                data[c][rows] = id(c < values.length ? values[c] : null);
+            }
+            rows++;
+        }
+
+        private int id(String value) {
+            String key = value == null ? "" : value;
+            Integer id = ids.get(key);
+            if(id == null) {
+                id = dictionary.size();
+                ids.put(key, id);
+                dictionary.add(key);
+            }
+            return id;
+        }
+
+        /**
+         * magic, columns, rows, dictionary size, column name ids,
+         * dictionary offsets (size + 1), utf-8 dictionary bytes, column blocks
+         */
+        void write(DataOutputStream out) throws IOException {
+            out.writeInt(MAGIC);
+            out.writeInt(names.length);
+            out.writeInt(rows);
+            out.writeInt(dictionary.size());
+            for(int name : names) {
+                out.writeInt(name);
+            }
+            List<byte[]> encoded = new ArrayList<>(dictionary.size());
+            int offset = 0;
+            out.writeInt(offset);
+            for(String value : dictionary) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                encoded.add(bytes);
+                offset += bytes.length;
+                out.writeInt(offset);
+            }
+            for(byte[] bytes : encoded) {
+                out.write(bytes);
+            }
+            for(int[] column : data) {
+                for(int r = 0; r < rows; r++) {
+                    out.writeInt(column[r]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,247 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jxl.Cell;
+import jxl.Sheet;
+import jxl.Workbook;
+import jxl.read.biff.BiffException;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cache of parsed excel workbooks keyed by path and modification time.
+ * A workbook is parsed once with jxl and closed; its cells are kept per sheet
+ * together with an index of the positions of every value, so both table
+ * markers are found without scanning the sheet. Table slices are computed once
+ * and handed out as copies so callers cannot alter the cached data.
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Slf4j
+public class ExcelWorkbookCache {
+
+    /**Last column searched for the closing table marker*/
+    private static final int LAST_MARKER_COLUMN=100;
+
+    /**Last row searched for the closing table marker*/
+    private static final int LAST_MARKER_ROW=64000;
+
+    /**Parsed workbooks per canonical path*/
+    private final ConcurrentMap<String, CachedWorkbook> workbooks = new ConcurrentHashMap<>();
+
+    /**Requests served from the cache*/
+    @Getter
+    private final AtomicLong hits = new AtomicLong();
+
+    /**Workbooks parsed from disk*/
+    @Getter
+    private final AtomicLong loads = new AtomicLong();
+
+    /**
+     * Get the cells between the two markers of a table
+     * @param xlFilePath path to the .xls file
+     * @param sheetName the sheet name
+     * @param tableName the text of the start and end markers
+     * @return String[][] copy of the table cells
+     * @throws IOException
+     * @throws BiffException
+     */
+    public String[][] table(String xlFilePath, String sheetName, String tableName) throws IOException, BiffException {
+        CachedWorkbook workbook = workbook(xlFilePath);
+        String key = sheetName + "\u0000" + tableName;
+        String[][] table = workbook.tables.get(key);
+        if(table == null) {
+            table = workbook.slice(sheetName, tableName);
+            workbook.tables.putIfAbsent(key, table);
+        }
+        String[][] copy = new String[table.length][];
+        for(int i = 0; i < table.length; i++) {
+            copy[i] = table[i].clone();
+        }
+        return copy;
+    }
+
+    /**
+     * Get the parsed workbook, parsing it again if the file changed
+     * @param xlFilePath
+     * @return CachedWorkbook
+     * @throws IOException
+     * @throws BiffException
+     */
+    public synchronized CachedWorkbook workbook(String xlFilePath) throws IOException, BiffException {
+        File file = new File(xlFilePath).getCanonicalFile();
+        CachedWorkbook cached = workbooks.get(file.getPath());
+        if(cached != null && cached.lastModified == file.lastModified()) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        cached = new CachedWorkbook(file);
+        loads.incrementAndGet();
+        workbooks.put(file.getPath(), cached);
+        log.info("Excel workbook {} parsed in {} ms, {} sheets, ~{} KB", file.getPath(), cached.parseMillis, cached.sheets.size(), cached.estimatedBytes / 1024);
+        return cached;
+    }
+
+    /**
+     * Drop all parsed workbooks
+     */
+    public void clear() {
+        workbooks.clear();
+    }
+
+    /**
+     * Cell contents of one workbook with the marker index per sheet
+     */
+    public static final class CachedWorkbook {
+
+        /**Modification time of the parsed file*/
+        @Getter
+        private final long lastModified;
+
+        /**Time spent parsing and indexing*/
+        @Getter
+        private final long parseMillis;
+
+        /**Estimated heap held by the cell contents and index*/
+        @Getter
+        private final long estimatedBytes;
+
+        /**Cell contents per sheet name*/
+        private final Map<String, String[][]> sheets = new HashMap<>();
+
+        /**Positions of each value in row order per sheet name*/
+        private final Map<String, Map<String, Positions>> markers = new HashMap<>();
+
+        /**Computed table slices*/
+        private final ConcurrentMap<String, String[][]> tables = new ConcurrentHashMap<>();
+
+        private CachedWorkbook(File file) throws IOException, BiffException {
+            long start = System.currentTimeMillis();
+            long bytes = 0;
+            lastModified = file.lastModified();
+            Workbook workbook = Workbook.getWorkbook(file);
+            try {
+                for(Sheet sheet : workbook.getSheets()) {
+                    String[][] cells = new String[sheet.getRows()][];
+                    Map<String, Positions> index = new HashMap<>();
+                    for(int i = 0; i < cells.length; i++) {
+                        Cell[] row = sheet.getRow(i);
+                        cells[i] = new String[row.length];
+                        for(int j = 0; j < row.length; j++) {
+                            String contents = row[j].getContents();
+                            cells[i][j] = contents;
+                            bytes += 16 + 2L * contents.length();
+                            if(!contents.isEmpty()) {
+                                Positions positions = index.get(contents);
+                                if(positions == null) {
+                                    positions = new Positions();
+                                    index.put(contents, positions);
+                                    bytes += 64;
+                                }
+                                positions.add(i, j);
+                                bytes += 8;
+                            }
+                        }
+                    }
+                    sheets.put(sheet.getName(), cells);
+                    markers.put(sheet.getName(), index);
+                }
+            } finally {
+                workbook.close();
+            }
+            estimatedBytes = bytes;
+            parseMillis = System.currentTimeMillis() - start;
+        }
+
+        /**
+         * Cells strictly inside the start marker and the closing marker below-right of it.
+         * The closing marker is the indexed position the baseline search over columns
+         * up to {@value #LAST_MARKER_COLUMN} and rows up to {@value #LAST_MARKER_ROW} finds first (leftmost, then topmost)
+         * @param sheetName
+         * @param tableName
+         * @return String[][] table cells
+         */
+        private String[][] slice(String sheetName, String tableName) {
+            String[][] cells = sheets.get(sheetName);
+            if(cells == null) {
+                throw new IllegalArgumentException("Sheet "+sheetName+" not found");
+            }
+            Positions positions = markers.get(sheetName).get(tableName);
+            if(positions == null) {
+                throw new IllegalArgumentException("Table "+tableName+" not found in sheet "+sheetName);
+            }
+            int[] found = positions.cells;
+            int startRow = found[0], startCol = found[1], endRow = -1, endCol = -1;
+            for(int p = 2; p < positions.size; p += 2) {
+                int row = found[p], col = found[p + 1];
+                if(row > startRow && row <= LAST_MARKER_ROW && col > startCol && col <= LAST_MARKER_COLUMN
+                        && (endRow < 0 || col < endCol || (col == endCol && row < endRow))) {
+                    endRow = row;
+                    endCol = col;
+                }
+            }
+            if(endRow < 0) {
+                throw new IllegalArgumentException("End marker of table "+tableName+" not found in sheet "+sheetName);
+            }
+            String[][] table = new String[endRow - startRow - 1][endCol - startCol - 1];
+            for(int i = startRow + 1, ci = 0; i < endRow; i++, ci++) {
+                for(int j = startCol + 1, cj = 0; j < endCol; j++, cj++) {
+                    table[ci][cj] = j < cells[i].length ? cells[i][j] : "";
+                }
+            }
+            return table;
+        }
+    }
+
+    /**
+     * Row/column pairs of a value in the order the cells were read
+     */
+    private static final class Positions {
+
+        private int[] cells = new int[2];
+
+        private int size;
+
+        private void add(int row, int column) {
+            if(size == cells.length) {
+                cells = Arrays.copyOf(cells, size * 2);
+            }
+            cells[size++] = row;
+            cells[size++] = column;
+        }
+    }
+}
@@ -0,0 +1,364 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.data;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import org.testng.SkipException;
+
+/**
+ * Lazy XLSX data source for TestNG data providers.
+ * The sheet xml is read with a StAX pull parser straight from the zip entry,
+ * so rows are produced as they are parsed and only the shared strings table
+ * is held in memory. The first non blank row is the header, every following
+ * row is returned as one invocation with a Map of header to value.
+ * Cell values are the raw stored values (numbers and dates are not formatted).
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Slf4j
+public class XlsxRowIterator implements Iterator<Object[]>, Closeable {
+
+    /**Namespace of relationship ids in workbook.xml*/
+    private static final String RELATIONSHIPS="http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+    /**The xlsx file*/
+    @Getter
+    private final String filePath;
+
+    /**Column names from the header row*/
+    @Getter
+    private String[] header;
+
+    /**Number of rows returned so far*/
+    @Getter
+    private long rows;
+
+    /**Shared strings referenced by index from the cells*/
+    private final List<String> sharedStrings = new ArrayList<>();
+
+    private final XMLInputFactory factory = XMLInputFactory.newInstance();
+
+    private ZipFile zip;
+
+    private InputStream sheetStream;
+
+    /**Sheet parser, null when exhausted*/
+    private XMLStreamReader reader;
+
+    /**Next row read ahead for hasNext*/
+    private String[] next;
+
+    /**
+     * Open the workbook and position the parser at the first data row
+     * @param filePath path to the .xlsx file
+     * @param sheetName name of the sheet, empty for the first sheet
+     */
+    public XlsxRowIterator(String filePath, String sheetName) {
+        this.filePath = filePath;
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        try {
+            zip = new ZipFile(filePath);
+            readSharedStrings();
+            ZipEntry sheet = zip.getEntry(sheetPath(sheetName));
+            if(sheet == null) {
+                throw new IOException("Sheet "+sheetName+" not found");
+            }
+            sheetStream = zip.getInputStream(sheet);
+            reader = factory.createXMLStreamReader(sheetStream);
+            header = readAhead();
+            if(header == null) {
+                throw new IOException("No header row found");
+            }
+            next = readAhead();
+            log.debug("XLSX data source opened {} with columns {}", filePath, header.length);
+        } catch (IOException | XMLStreamException e) {
+            close();
+            log.error("Exception during loading test data sources: "+e);
+            throw new SkipException("Data not loaded for test execution!!!");
+        }
+    }
+
+    @Override
+    public synchronized boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public synchronized Object[] next() {
+        if(next == null) {
+            throw new NoSuchElementException("No more rows in "+filePath);
+        }
+        Map<String, String> row = CsvRowIterator.toMap(header, next);
+        rows++;
+        next = readAhead();
+        return new Object[] { row };
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Data rows are read only");
+    }
+
+    /**
+     * Release the parser and the zip file, safe to call more than once
+     */
+    @Override
+    public synchronized void close() {
+        try {
+            if(reader != null) {
+                reader.close();
+            }
+            if(sheetStream != null) {
+                sheetStream.close();
+            }
+            if(zip != null) {
+                zip.close();
+            }
+        } catch (IOException | XMLStreamException e) {
+            log.warn("Could not close xlsx data source {}: {}", filePath, e.getMessage());
+        }
+        reader = null;
+        sheetStream = null;
+        zip = null;
+    }
+
+    /**
+     * Read the next non blank row, closing the file at end of input
+     * @return the cell values or null
+     */
+    private String[] readAhead() {
+        if(reader == null) {
+            return null;
+        }
+        try {
+            while(reader.hasNext()) {
+                if(reader.next() == XMLStreamConstants.START_ELEMENT && "row".equals(reader.getLocalName())) {
+                    String[] row = readRow();
+                    for(String cell : row) {
+                        if(!cell.trim().isEmpty()) {
+                            return row;
+                        }
+                    }
+                }
+            }
+            log.debug("XLSX data source {} exhausted after {} rows", filePath, rows);
+        } catch (XMLStreamException e) {
+            log.error("Reading xlsx data source {} stopped: {}", filePath, e.getMessage());
+        }
+        close();
+        return null;
+    }
+
+    /**
+     * Read the cells of the current row element, filling skipped columns with empty values
+     * @return String[] cell values
+     * @throws XMLStreamException
+     */
+    private String[] readRow() throws XMLStreamException {
+        List<String> cells = new ArrayList<>();
+        while(reader.hasNext()) {
+            int event = reader.next();
+            if(event == XMLStreamConstants.START_ELEMENT && "c".equals(reader.getLocalName())) {
+                String ref = reader.getAttributeValue(null, "r");
+                int column = ref != null ? column(ref) : cells.size();
+                String value = readCell(reader.getAttributeValue(null, "t"));
+                while(cells.size() < column) {
+                    cells.add("");
+                }
+                if(column < cells.size()) {
+                    cells.set(column, value);
+                } else {
+                    cells.add(value);
+                }
+            } else if(event == XMLStreamConstants.END_ELEMENT && "row".equals(reader.getLocalName())) {
+                break;
+            }
+        }
+        return cells.toArray(new String[cells.size()]);
+    }
+
+    /**
+     * Read the value of the current cell element
+     * @param type the t attribute of the cell
+     * @return String value
+     * @throws XMLStreamException
+     */
+    private String readCell(String type) throws XMLStreamException {
+        StringBuilder value = new StringBuilder();
+        boolean text = false;
+        while(reader.hasNext()) {
+            int event = reader.next();
+            if(event == XMLStreamConstants.START_ELEMENT) {
+                text = "v".equals(reader.getLocalName()) || "t".equals(reader.getLocalName());
+            } else if(event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                if(text) {
+                    value.append(reader.getText());
+                }
+            } else if(event == XMLStreamConstants.END_ELEMENT) {
+                text = false;
+                if("c".equals(reader.getLocalName())) {
+                    break;
+                }
+            }
+        }
+        if("s".equals(type) && value.length() > 0) {
+            try {
+                return sharedStrings.get(Integer.parseInt(value.toString().trim()));
+            } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                throw new XMLStreamException("Shared string "+value+" not found", reader.getLocation());
+            }
+        } else if("b".equals(type)) {
+            return "1".equals(value.toString()) ? "TRUE" : "FALSE";
+        }
+        return value.toString();
+    }
+
+    /**
+     * Zero based column index of a cell reference like AB12
+     * @param ref
+     * @return int column
+     */
+    private static int column(String ref) {
+        int column = 0;
+        for(int i = 0; i < ref.length() && Character.isLetter(ref.charAt(i)); i++) {
+            column = column * 26 + (Character.toUpperCase(ref.charAt(i)) - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+    /**
+     * Load xl/sharedStrings.xml, ignoring phonetic runs
+     * @throws IOException
+     * @throws XMLStreamException
+     */
+    private void readSharedStrings() throws IOException, XMLStreamException {
+        ZipEntry entry = zip.getEntry("xl/sharedStrings.xml");
+        if(entry == null) {
+            return;
+        }
+        try(InputStream in = zip.getInputStream(entry)) {
+            XMLStreamReader xml = factory.createXMLStreamReader(in);
+            StringBuilder value = new StringBuilder();
+            boolean text = false;
+            int phonetic = 0;
+            while(xml.hasNext()) {
+                int event = xml.next();
+                if(event == XMLStreamConstants.START_ELEMENT) {
+                    String name = xml.getLocalName();
+                    if("si".equals(name)) {
+                        value.setLength(0);
+                    } else if("rPh".equals(name)) {
+                        phonetic++;
+                    }
+                    text = "t".equals(name) && phonetic == 0;
+                } else if(event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                    if(text) {
+                        value.append(xml.getText());
+                    }
+                } else if(event == XMLStreamConstants.END_ELEMENT) {
+                    text = false;
+                    if("si".equals(xml.getLocalName())) {
+                        sharedStrings.add(value.toString());
+                    } else if("rPh".equals(xml.getLocalName())) {
+                        phonetic--;
+                    }
+                }
+            }
+            xml.close();
+        }
+    }
+
+    /**
+     * Resolve the zip entry of a sheet through workbook.xml and its relationships
+     * @param sheetName sheet name, empty for the first sheet
+     * @return String zip entry name
+     * @throws IOException
+     * @throws XMLStreamException
+     */
+    private String sheetPath(String sheetName) throws IOException, XMLStreamException {
+        String relationId = null;
+        try(InputStream in = zip.getInputStream(entry("xl/workbook.xml"))) {
+            XMLStreamReader xml = factory.createXMLStreamReader(in);
+            while(xml.hasNext() && relationId == null) {
+                if(xml.next() == XMLStreamConstants.START_ELEMENT && "sheet".equals(xml.getLocalName())) {
+                    if(sheetName == null || sheetName.isEmpty() || sheetName.equals(xml.getAttributeValue(null, "name"))) {
+                        relationId = xml.getAttributeValue(RELATIONSHIPS, "id");
+                    }
+                }
+            }
+            xml.close();
+        }
+        if(relationId == null) {
+            throw new IOException("Sheet "+sheetName+" not found");
+        }
+        try(InputStream in = zip.getInputStream(entry("xl/_rels/workbook.xml.rels"))) {
+            XMLStreamReader xml = factory.createXMLStreamReader(in);
+            while(xml.hasNext()) {
+                if(xml.next() == XMLStreamConstants.START_ELEMENT && relationId.equals(xml.getAttributeValue(null, "Id"))) {
+                    String target = xml.getAttributeValue(null, "Target");
+                    xml.close();
+                    return target.startsWith("/") ? target.substring(1) : "xl/" + target;
+                }
+            }
+            xml.close();
+        }
+        throw new IOException("Relationship "+relationId+" not found");
+    }
+
+    /**
+     * Required entry of the workbook
+     * @param name the zip entry name
+     * @return ZipEntry
+     * @throws IOException if the entry is missing (not a valid xlsx file)
+     */
+    private ZipEntry entry(String name) throws IOException {
+        ZipEntry entry = zip.getEntry(name);
+        if(entry == null) {
+            throw new IOException("Entry "+name+" not found in "+filePath);
+        }
+        return entry;
+    }
+}
@@ -0,0 +1,233 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.retry;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+import org.openqa.selenium.InvalidSelectorException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.UnsupportedCommandException;
+import org.openqa.selenium.remote.SessionNotFoundException;
+import org.openqa.selenium.remote.UnreachableBrowserException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import com.automation.seletest.core.jmx.MonitorMetricsRegistry;
+import com.automation.seletest.core.services.annotations.RetryFailure;
+import com.thoughtworks.selenium.SeleniumException;
+
+/**
+ * Retry engine used by the retry advice and the TestNG retry analyzer.
+ * Classifies exceptions as transient or permanent, computes exponential backoff with jitter
+ * and enforces a retry budget per session and per suite. Once a budget is exceeded the circuit
+ * is open and failures are not retried any more.
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Slf4j
+@Component
+public class RetryEngine {
+
+    /**Environment instance*/
+    @Autowired
+    Environment env;
+
+    /**Metrics registry*/
+    @Autowired
+    MonitorMetricsRegistry metrics;
+
+    /**Retries allowed per session*/
+    @Getter @Setter
+    private int sessionBudget = 20;
+
+    /**Retries allowed per suite*/
+    @Getter @Setter
+    private int suiteBudget = 200;
+
+    /**Retries consumed in suite*/
+    private final AtomicInteger suiteRetries = new AtomicInteger();
+
+    /**Total retries performed*/
+    private final AtomicLong retries = new AtomicLong();
+
+    /**Failures not retried as permanent*/
+    private final AtomicLong permanentFailures = new AtomicLong();
+
+    /**Retries rejected because of open circuit*/
+    private final AtomicLong rejectedRetries = new AtomicLong();
+
+    /**Suite circuit state*/
+    private final AtomicBoolean suiteCircuitOpen = new AtomicBoolean();
+
+    /**
+     * Load budgets from properties
+     */
+    @PostConstruct
+    public void init() {
+        sessionBudget = env.getProperty("retry.budget.session", Integer.class, sessionBudget);
+        suiteBudget = env.getProperty("retry.budget.suite", Integer.class, suiteBudget);
+    }
+
+    /**
+     * Defines if an exception is permanent and retrying will not help
+     * @param ex Throwable
+     * @return true if the exception should not be retried
+     */
+    public boolean isPermanent(Throwable ex) {
+        return ex instanceof TimeoutException
+                || ex instanceof SeleniumException
+                || ex instanceof InvalidSelectorException
+                || ex instanceof UnsupportedCommandException
+                || ex instanceof UnsupportedOperationException
+                || ex instanceof SessionNotFoundException
+                || ex instanceof UnreachableBrowserException
+                || ex instanceof IllegalArgumentException
+                || ex instanceof ClassCastException
+                || ex instanceof NullPointerException;
+    }
+
+    /**
+     * Count a failure that is not retried because it is permanent, once per failure
+     */
+    public void recordPermanentFailure() {
+        permanentFailures.incrementAndGet();
+    }
+
+    /**
+     * Acquire a retry from the suite and session budget, the session is charged
+     * only for retries the suite budget accepts
+     * @param sessionRetries AtomicInteger retries of session or null if no session is active
+     * @return true if retry is allowed, false if circuit is open
+     */
+    public boolean acquire(AtomicInteger sessionRetries) {
+        if(suiteCircuitOpen.get()) {
+            rejectedRetries.incrementAndGet();
+            return false;
+        }
+        if(suiteRetries.incrementAndGet() > suiteBudget) {
+            if(suiteCircuitOpen.compareAndSet(false, true)) {
+                log.warn("Retry budget of {} exceeded for suite, circuit is open", suiteBudget);
+            }
+            rejectedRetries.incrementAndGet();
+            return false;
+        }
+        if(sessionRetries != null && sessionRetries.incrementAndGet() > sessionBudget) {
+            suiteRetries.decrementAndGet();
+            if(sessionRetries.get() == sessionBudget + 1) {
+                log.warn("Retry budget of {} exceeded for session, circuit is open", sessionBudget);
+            }
+            rejectedRetries.incrementAndGet();
+            return false;
+        }
+        retries.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Defines if the suite circuit is open
+     * @return true if suite budget is exceeded
+     */
+    public boolean isSuiteCircuitOpen() {
+        return suiteCircuitOpen.get();
+    }
+
+    /**
+     * Exponential backoff with equal jitter
+     * @param retry RetryFailure policy
+     * @param attemptCount int failed attempt (1 based)
+     * @return long millis to sleep
+     */
+    public long backoff(RetryFailure retry, int attemptCount) {
+        double delay = retry.sleepMillis() * Math.pow(retry.backoffMultiplier(), attemptCount - 1);
+        long capped = (long) Math.min(delay, retry.maxSleepMillis());
+        if(capped <= 1) {
+            return Math.max(0, capped);
+        }
+        long half = capped / 2;
+        return half + ThreadLocalRandom.current().nextLong(capped - half + 1);
+    }
+
+    /**
+     * Sleep before next attempt and record the backoff in metrics
+     * @param method String metric name of the retried method
+     * @param millis long sleep
+     * @throws InterruptedException
+     */
+    public void sleep(String method, long millis) throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            Thread.sleep(millis);
+        } finally {
+            metrics.record("Retry" + method, System.nanoTime() - start, -1);
+        }
+    }
+
+    /**
+     * Reset suite budget and counters
+     */
+    public void reset() {
+        suiteRetries.set(0);
+        suiteCircuitOpen.set(false);
+        retries.set(0);
+        permanentFailures.set(0);
+        rejectedRetries.set(0);
+    }
+
+    /**
+     * Total retries performed
+     * @return long retries
+     */
+    public long getRetries() {
+        return retries.get();
+    }
+
+    /**
+     * Failures not retried as permanent
+     * @return long failures
+     */
+    public long getPermanentFailures() {
+        return permanentFailures.get();
+    }
+
+    /**
+     * Retries rejected because of exceeded budget
+     * @return long rejected retries
+     */
+    public long getRejectedRetries() {
+        return rejectedRetries.get();
+    }
+}
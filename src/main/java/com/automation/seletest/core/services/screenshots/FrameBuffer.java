@@ -0,0 +1,113 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.screenshots;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * Bounded ring buffer with the last frames captured in a session
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+public class FrameBuffer {
+
+    /**Frames in capture order, oldest is overwritten*/
+    private final Entry[] entries;
+
+    /**Index of next frame*/
+    private int next;
+
+    /**Frames currently kept*/
+    private int count;
+
+    /**Actions seen since creation*/
+    private long actions;
+
+    public FrameBuffer(int size) {
+        entries = new Entry[Math.max(1, size)];
+    }
+
+    /**
+     * Count an action and define if it should be captured
+     * @param sampling capture every n-th action
+     * @return true if action should be captured
+     */
+    public synchronized boolean sample(int sampling) {
+        return actions++ % sampling == 0;
+    }
+
+    /**
+     * Add frame, overwriting the oldest one if buffer is full
+     * @param step the step after which frame was captured
+     * @param png bytes of png image
+     */
+    public synchronized void add(String step, byte[] png) {
+        entries[next] = new Entry(step, png, System.currentTimeMillis());
+        next = (next + 1) % entries.length;
+        count = Math.min(count + 1, entries.length);
+    }
+
+    /**
+     * Remove all frames
+     * @return frames oldest first
+     */
+    public synchronized List<Entry> drain() {
+        List<Entry> frames = new ArrayList<>(count);
+        for(int i = 0; i < count; i++) {
+            int index = (next - count + i + entries.length) % entries.length;
+            frames.add(entries[index]);
+            entries[index] = null;
+        }
+        count = 0;
+        return frames;
+    }
+
+    /**
+     * Frame of the buffer
+     */
+    @Getter
+    public static class Entry {
+
+        /**The step after which frame was captured*/
+        private final String step;
+
+        /**Bytes of png image*/
+        private final byte[] png;
+
+        /**Capture time in millis*/
+        private final long time;
+
+        Entry(String step, byte[] png, long time) {
+            this.step = step;
+            this.png = png;
+            this.time = time;
+        }
+    }
+}
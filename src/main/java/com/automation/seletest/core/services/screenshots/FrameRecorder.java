@@ -0,0 +1,143 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.screenshots;
+
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import com.automation.seletest.core.selenium.threads.ExecutionContext;
+import com.automation.seletest.core.selenium.threads.SessionProperties;
+import com.automation.seletest.core.services.utilities.FilesUtils;
+
+/**
+ * Keeps the last frames of each session in memory, captured at action boundaries,
+ * and writes them to disk only when a test fails
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Slf4j
+@Component
+public class FrameRecorder {
+
+    /** Environment instance*/
+    @Autowired
+    Environment env;
+
+    /**Screenshot writer*/
+    @Autowired
+    ScreenshotService screenshots;
+
+    /**FileUtils*/
+    @Autowired
+    FilesUtils fileService;
+
+    /**Frames kept per session*/
+    @Getter
+    private int size = 5;
+
+    /**Capture every n-th action, 0 disables capturing*/
+    @Getter
+    private int sampling = 0;
+
+    @PostConstruct
+    public void init() {
+        size = env.getProperty("frames.size", Integer.class, size);
+        sampling = env.getProperty("frames.sampling", Integer.class, sampling);
+    }
+
+    /**
+     * Capture frame of the current session after a step, if sampled
+     * @param step the step executed
+     */
+    public void record(String step) {
+        if(sampling <= 0) {
+            return;
+        }
+        SessionProperties<?> session = ExecutionContext.current().getSession();
+        if(session == null || !(session.getWebDriver() instanceof TakesScreenshot)) {
+            return;
+        }
+        FrameBuffer buffer = buffer(session);
+        if(buffer.sample(sampling)) {
+            try {
+                buffer.add(step, ((TakesScreenshot) session.getWebDriver()).getScreenshotAs(OutputType.BYTES));
+            } catch (Exception e) {
+                log.debug("Frame not captured after {}: {}", step, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Write buffered frames of session and report them
+     * @param session SessionProperties
+     * @return number of frames written
+     */
+    public int persist(SessionProperties<?> session) {
+        if(session == null || session.getFrames() == null) {
+            return 0;
+        }
+        List<FrameBuffer.Entry> frames = session.getFrames().drain();
+        for(FrameBuffer.Entry frame : frames) {
+            Screenshot screenshot = screenshots.store(frame.getPng());
+            log.info("Frame after step {} captured at {}", frame.getStep(), frame.getTime());
+            fileService.reportScreenshot(screenshot.getFile());
+        }
+        return frames.size();
+    }
+
+    /**
+     * Discard buffered frames of session
+     * @param session SessionProperties
+     */
+    public void clear(SessionProperties<?> session) {
+        if(session != null && session.getFrames() != null) {
+            session.getFrames().drain();
+        }
+    }
+
+    /**
+     * Buffer of session, created on first use
+     * @param session SessionProperties
+     * @return FrameBuffer
+     */
+    private FrameBuffer buffer(SessionProperties<?> session) {
+        if(session.getFrames() == null) {
+            session.setFrames(new FrameBuffer(size));
+        }
+        return session.getFrames();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.screenshots;
+
+import java.io.File;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import lombok.Getter;
+
+/**
+ * Handle of a screenshot, returned before the screenshot is written to disk
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Getter
+public class Screenshot {
+
+    /**The file the screenshot is written to*/
+    private final File file;
+
+    /**Content hash of the screenshot*/
+    private final String hash;
+
+    /**True if an identical frame was already captured*/
+    private final boolean duplicate;
+
+    /**Pending write of the screenshot*/
+    private final Future<File> write;
+
+    public Screenshot(File file, String hash, boolean duplicate, Future<File> write) {
+        this.file = file;
+        this.hash = hash;
+        this.duplicate = duplicate;
+        this.write = write;
+    }
+
+    /**
+     * Defines if screenshot is written to disk
+     * @return true if write is completed
+     */
+    public boolean isWritten() {
+        return write.isDone();
+    }
+
+    /**
+     * Wait until screenshot is written to disk
+     * @param timeoutMillis max time to wait
+     * @return File of the screenshot
+     * @throws InterruptedException
+     * @throws ExecutionException
+     * @throws TimeoutException
+     */
+    public File await(long timeoutMillis) throws InterruptedException, ExecutionException, TimeoutException {
+        return write.get(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,275 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.screenshots;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.imageio.ImageIO;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.commons.io.FileUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.testng.Reporter;
+
+/**
+ * Writes screenshots off the test thread.
+ * The caller hands over the captured bytes (or image) and gets a {@link Screenshot} handle immediately,
+ * while encoding and writing run on a bounded executor. Identical frames are written once.
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Slf4j
+@Component
+public class ScreenshotService {
+
+    /**Screenshots directory relative to suite output*/
+    private static final String SCREENSHOTS = "/html/screenshots";
+
+    /** Environment instance*/
+    @Autowired
+    Environment env;
+
+    /**Writes of screenshots per content hash*/
+    private final ConcurrentMap<String, Future<File>> frames = new ConcurrentHashMap<>();
+
+    /**The background writer*/
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        int threads = env.getProperty("screenshot.threads", Integer.class, 2);
+        int queue = env.getProperty("screenshot.queue", Integer.class, 32);
+        final AtomicInteger count = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(queue), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "SeletestFramework - screenshot writer " + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Store png screenshot
+     * @param png bytes of png image
+     * @return Screenshot handle
+     */
+    public Screenshot store(final byte[] png) {
+        return store(hash(png), new Encoder() {
+            @Override
+            public void write(File file) throws IOException {
+                FileUtils.writeByteArrayToFile(file, png);
+            }
+        });
+    }
+
+    /**
+     * Store image as png screenshot, encoding takes place in background
+     * @param image BufferedImage
+     * @return Screenshot handle
+     */
+    public Screenshot store(final BufferedImage image) {
+        return store(hash(image), new Encoder() {
+            @Override
+            public void write(File file) throws IOException {
+                ImageIO.write(image, "png", file);
+            }
+        });
+    }
+
+    /**
+     * Decode png screenshot in memory
+     * @param png bytes of png image
+     * @return BufferedImage
+     * @throws IOException if bytes are not a supported image
+     */
+    public BufferedImage decode(byte[] png) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        if(image == null) {
+            throw new IOException("Screenshot is not a supported image");
+        }
+        return image;
+    }
+
+    /**
+     * Crop region of image, clipped to the bounds of the image
+     * @param image BufferedImage
+     * @param x left of region
+     * @param y top of region
+     * @param width width of region
+     * @param height height of region
+     * @return BufferedImage sharing the data of image
+     */
+    public BufferedImage crop(BufferedImage image, int x, int y, int width, int height) {
+        Rectangle region = new Rectangle(x, y, width, height).intersection(new Rectangle(image.getWidth(), image.getHeight()));
+        if(region.isEmpty()) {
+            throw new IllegalArgumentException("Region [" + x + "," + y + "," + width + "," + height + "] is outside of screenshot");
+        }
+        return image.getSubimage(region.x, region.y, region.width, region.height);
+    }
+
+    /**
+     * Wait until all pending screenshots are written
+     * @param timeoutMillis max time to wait
+     */
+    public void flush(long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        for(Future<File> write : frames.values()) {
+            try {
+                write.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException | TimeoutException e) {
+                log.error("Screenshot not written: {}", e.getMessage());
+            }
+        }
+        frames.clear();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Submit write of a frame unless an identical one is already submitted
+     * @param hash content hash
+     * @param encoder Encoder of frame
+     * @return Screenshot handle
+     */
+    private Screenshot store(String hash, final Encoder encoder) {
+        final File file = new File(directory(), "screenshot-" + hash + ".png");
+        FutureTask<File> write = new FutureTask<>(new Callable<File>() {
+            @Override
+            public File call() throws Exception {
+                FileUtils.forceMkdir(file.getParentFile());
+                encoder.write(file);
+                log.debug("Screenshot written to {}", file.getAbsolutePath());
+                return file;
+            }
+        });
+        Future<File> existing = frames.putIfAbsent(hash, write);
+        if(existing != null) {
+            log.debug("Identical screenshot already captured, {}", file.getAbsolutePath());
+            return new Screenshot(file, hash, true, existing);
+        }
+        executor.execute(write);
+        return new Screenshot(file, hash, false, write);
+    }
+
+    /**
+     * Screenshots directory of the current suite
+     * @return File directory
+     */
+    private File directory() {
+        if (Reporter.getCurrentTestResult() != null && Reporter.getCurrentTestResult().getTestContext().getSuite().getOutputDirectory() != null) {
+            return new File(new File(Reporter.getCurrentTestResult().getTestContext().getSuite().getOutputDirectory()).getParent(), SCREENSHOTS);
+        }
+        return new File(".");
+    }
+
+    /**
+     * Content hash of bytes
+     * @param bytes byte[]
+     * @return hex hash
+     */
+    private String hash(byte[] bytes) {
+        MessageDigest digest = digest();
+        digest.update(bytes);
+        return hex(digest.digest());
+    }
+
+    /**
+     * Content hash of image pixels
+     * @param image BufferedImage
+     * @return hex hash
+     */
+    private String hash(BufferedImage image) {
+        MessageDigest digest = digest();
+        int width = image.getWidth();
+        digest.update(ByteBuffer.allocate(8).putInt(width).putInt(image.getHeight()).array());
+        ByteBuffer row = ByteBuffer.allocate(width * 4);
+        int[] pixels = new int[width];
+        for(int y = 0; y < image.getHeight(); y++) {
+            image.getRGB(0, y, width, 1, pixels, 0, width);
+            row.clear();
+            row.asIntBuffer().put(pixels);
+            digest.update(row.array());
+        }
+        return hex(digest.digest());
+    }
+
+    private MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String hex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for(byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Writes a frame to file
+     */
+    private interface Encoder {
+        void write(File file) throws IOException;
+    }
+}
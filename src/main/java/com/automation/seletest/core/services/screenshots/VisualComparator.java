@@ -0,0 +1,462 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.screenshots;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.imageio.ImageIO;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.commons.io.FileUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Visual comparison of screenshots against baselines.
+ * Images are split in tiles, tile hashes are compared first and only changed tiles are compared pixel by pixel,
+ * in parallel on a ForkJoinPool. Baselines are stored content addressed (objects/&lt;sha1&gt;.png) with a ref file per name.
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Slf4j
+@Component
+public class VisualComparator {
+
+    /**Directory of baseline images*/
+    private static final String OBJECTS = "objects";
+
+    /**Directory of baseline names*/
+    private static final String REFS = "refs";
+
+    /**Tiles handled by a single fork join task*/
+    private static final int TILES_PER_TASK = 16;
+
+    /** Environment instance*/
+    @Autowired
+    Environment env;
+
+    /**Root directory of baselines*/
+    @Getter @Setter
+    File baselineDirectory = new File("./target/surefire-reports/baselines");
+
+    /**Width and height of tiles in pixels*/
+    @Getter @Setter
+    int tileSize = 64;
+
+    /**Max difference per color channel for equal pixels*/
+    @Getter @Setter
+    int tolerance = 8;
+
+    /**Max ratio of different pixels for a match*/
+    @Getter @Setter
+    double threshold = 0.001;
+
+    /**Max number of decoded baselines kept in memory*/
+    @Getter @Setter
+    int cacheSize = 32;
+
+    /**Decoded baselines per content hash, the least recently used is evicted when the cache is full*/
+    @SuppressWarnings("serial")
+    private final Map<String, Frame> baselines = Collections.synchronizedMap(new LinkedHashMap<String, Frame>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Frame> eldest) {
+            return size() > cacheSize;
+        }
+    });
+
+    /**Pool for tile hashing and pixel comparison*/
+    private final ForkJoinPool pool = new ForkJoinPool();
+
+    @PostConstruct
+    public void init() {
+        baselineDirectory = new File(env.getProperty("visual.baseline.dir", baselineDirectory.getPath()));
+        tileSize = env.getProperty("visual.tile.size", Integer.class, tileSize);
+        tolerance = env.getProperty("visual.tolerance", Integer.class, tolerance);
+        threshold = env.getProperty("visual.threshold", Double.class, threshold);
+        cacheSize = env.getProperty("visual.cache.size", Integer.class, cacheSize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Name of baseline for an invocation of a test and a locator.
+     * Invocations with different parameters (data provider rows) get different baselines,
+     * identified by a hash of the parameters so that names are stable across runs.
+     * @param test the name of test
+     * @param parameters the parameters of the invocation, null or empty for tests without parameters
+     * @param locator Object locator, null for the whole page
+     * @return the name of baseline
+     */
+    public String baselineName(String test, Object[] parameters, Object locator) {
+        String name = test == null ? "suite" : test;
+        if(parameters != null && parameters.length > 0) {
+            name += "_" + Integer.toHexString(Arrays.deepToString(parameters).hashCode());
+        }
+        name += "_" + (locator == null ? "page" : locator.toString());
+        return name.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    /**
+     * Compare screenshot with baseline, the screenshot becomes the baseline if none exists
+     * @param name the name of baseline
+     * @param actual BufferedImage screenshot
+     * @param ignore regions excluded from comparison
+     * @return VisualDiff result
+     * @throws IOException
+     */
+    public VisualDiff compare(String name, BufferedImage actual, Rectangle... ignore) throws IOException {
+        Frame baseline = baseline(name);
+        if(baseline == null) {
+            record(name, actual);
+            log.info("Baseline {} created", name);
+            return new VisualDiff(name, 0, (long) actual.getWidth() * actual.getHeight(), Collections.<Rectangle>emptyList(), threshold, true);
+        }
+        Frame frame = frame(actual);
+        if(frame.width != baseline.width || frame.height != baseline.height) {
+            long pixels = Math.max((long) frame.width * frame.height, (long) baseline.width * baseline.height);
+            return new VisualDiff(name, pixels, pixels, Collections.singletonList(new Rectangle(frame.width, frame.height)), threshold, false);
+        }
+        boolean[] changed = new boolean[frame.tiles()];
+        long compared = (long) frame.width * frame.height - ignoredPixels(frame, ignore);
+        long different = pool.invoke(new DiffTask(baseline, frame, ignore, changed, 0, changed.length));
+        List<Rectangle> changedTiles = new ArrayList<>();
+        for(int i = 0; i < changed.length; i++) {
+            if(changed[i]) {
+                changedTiles.add(frame.tile(i));
+            }
+        }
+        return new VisualDiff(name, different, compared, changedTiles, threshold, false);
+    }
+
+    /**
+     * Copy of screenshot with changed tiles outlined
+     * @param actual BufferedImage screenshot
+     * @param diff VisualDiff result
+     * @return BufferedImage
+     */
+    public BufferedImage diffImage(BufferedImage actual, VisualDiff diff) {
+        BufferedImage image = new BufferedImage(actual.getWidth(), actual.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.drawImage(actual, 0, 0, null);
+            graphics.setColor(Color.RED);
+            graphics.setStroke(new BasicStroke(2));
+            for(Rectangle tile : diff.getChangedTiles()) {
+                graphics.drawRect(tile.x, tile.y, tile.width - 1, tile.height - 1);
+            }
+        } finally {
+            graphics.dispose();
+        }
+        return image;
+    }
+
+    /**
+     * Load baseline by name
+     * @param name the name of baseline
+     * @return Frame or null if no baseline exists
+     * @throws IOException
+     */
+    private Frame baseline(String name) throws IOException {
+        File ref = new File(new File(baselineDirectory, REFS), name);
+        if(!ref.exists()) {
+            return null;
+        }
+        String hash = FileUtils.readFileToString(ref, StandardCharsets.UTF_8.name()).trim();
+        Frame baseline = baselines.get(hash);
+        if(baseline == null) {
+            BufferedImage image = ImageIO.read(new File(new File(baselineDirectory, OBJECTS), hash + ".png"));
+            if(image == null) {
+                throw new IOException("Baseline " + name + " is not readable");
+            }
+            baseline = frame(image);
+            synchronized (baselines) {
+                Frame existing = baselines.get(hash);
+                if(existing == null) {
+                    baselines.put(hash, baseline);
+                } else {
+                    baseline = existing;
+                }
+            }
+        }
+        return baseline;
+    }
+
+    /**
+     * Store screenshot as baseline
+     * @param name the name of baseline
+     * @param image BufferedImage screenshot
+     * @throws IOException
+     */
+    private void record(String name, BufferedImage image) throws IOException {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", png);
+        String hash = sha1(png.toByteArray());
+        File object = new File(new File(baselineDirectory, OBJECTS), hash + ".png");
+        if(!object.exists()) {
+            FileUtils.writeByteArrayToFile(object, png.toByteArray());
+        }
+        FileUtils.writeStringToFile(new File(new File(baselineDirectory, REFS), name), hash, StandardCharsets.UTF_8.name());
+    }
+
+    /**
+     * Pixels of image with tile hashes
+     * @param image BufferedImage
+     * @return Frame
+     */
+    private Frame frame(BufferedImage image) {
+        Frame frame = new Frame(image.getWidth(), image.getHeight(), tileSize);
+        image.getRGB(0, 0, frame.width, frame.height, frame.pixels, 0, frame.width);
+        pool.invoke(new HashTask(frame, 0, frame.tiles()));
+        return frame;
+    }
+
+    /**
+     * Pixels of frame inside ignore regions
+     * @param frame Frame
+     * @param ignore regions excluded from comparison
+     * @return number of ignored pixels
+     */
+    private long ignoredPixels(Frame frame, Rectangle... ignore) {
+        Rectangle bounds = new Rectangle(frame.width, frame.height);
+        Rectangle area = null;
+        for(Rectangle region : ignore) {
+            Rectangle clipped = region.intersection(bounds);
+            if(!clipped.isEmpty()) {
+                area = area == null ? clipped : area.union(clipped);
+            }
+        }
+        long ignored = 0;
+        for(int y = area == null ? 0 : area.y; area != null && y < area.y + area.height; y++) {
+            for(int x = area.x; x < area.x + area.width; x++) {
+                if(ignored(ignore, x, y)) {
+                    ignored++;
+                }
+            }
+        }
+        return ignored;
+    }
+
+    private static boolean ignored(Rectangle[] ignore, int x, int y) {
+        for(Rectangle region : ignore) {
+            if(region.contains(x, y)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String sha1(byte[] bytes) {
+        try {
+            StringBuilder hex = new StringBuilder();
+            for(byte b : MessageDigest.getInstance("SHA-1").digest(bytes)) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Pixels of an image split in tiles
+     */
+    private static class Frame {
+
+        final int width;
+        final int height;
+        final int tileSize;
+        final int columns;
+        final int[] pixels;
+        final long[] hashes;
+
+        Frame(int width, int height, int tileSize) {
+            this.width = width;
+            this.height = height;
+            this.tileSize = tileSize;
+            this.columns = (width + tileSize - 1) / tileSize;
+            this.pixels = new int[width * height];
+            this.hashes = new long[columns * ((height + tileSize - 1) / tileSize)];
+        }
+
+        int tiles() {
+            return hashes.length;
+        }
+
+        Rectangle tile(int index) {
+            int x = (index % columns) * tileSize;
+            int y = (index / columns) * tileSize;
+            return new Rectangle(x, y, Math.min(tileSize, width - x), Math.min(tileSize, height - y));
+        }
+
+        /**
+         * FNV-1a hash of the pixels of a tile
+         */
+        long hash(int index) {
+            Rectangle tile = tile(index);
+            long hash = 0xcbf29ce484222325L;
+            for(int y = tile.y; y < tile.y + tile.height; y++) {
+                int offset = y * width;
+                for(int x = tile.x; x < tile.x + tile.width; x++) {
+                    hash ^= pixels[offset + x];
+                    hash *= 0x100000001b3L;
+                }
+            }
+            return hash;
+        }
+    }
+
+    /**
+     * Computes tile hashes of a frame
+     */
+    @SuppressWarnings("serial")
+    private static class HashTask extends RecursiveAction {
+
+        final Frame frame;
+        final int from;
+        final int to;
+
+        HashTask(Frame frame, int from, int to) {
+            this.frame = frame;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from <= TILES_PER_TASK) {
+                for(int i = from; i < to; i++) {
+                    frame.hashes[i] = frame.hash(i);
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new HashTask(frame, from, middle), new HashTask(frame, middle, to));
+            }
+        }
+    }
+
+    /**
+     * Compares tiles with different hashes pixel by pixel
+     */
+    @SuppressWarnings("serial")
+    private class DiffTask extends RecursiveTask<Long> {
+
+        final Frame baseline;
+        final Frame actual;
+        final Rectangle[] ignore;
+        final boolean[] changed;
+        final int from;
+        final int to;
+
+        DiffTask(Frame baseline, Frame actual, Rectangle[] ignore, boolean[] changed, int from, int to) {
+            this.baseline = baseline;
+            this.actual = actual;
+            this.ignore = ignore;
+            this.changed = changed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Long compute() {
+            if(to - from > TILES_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                DiffTask left = new DiffTask(baseline, actual, ignore, changed, from, middle);
+                left.fork();
+                long right = new DiffTask(baseline, actual, ignore, changed, middle, to).compute();
+                return left.join() + right;
+            }
+            long different = 0;
+            for(int i = from; i < to; i++) {
+                if(baseline.hashes[i] != actual.hashes[i]) {
+                    long tileDifferent = diff(actual.tile(i));
+                    changed[i] = tileDifferent > 0;
+                    different += tileDifferent;
+                }
+            }
+            return different;
+        }
+
+        /**
+         * Different pixels of a tile
+         */
+        private long diff(Rectangle tile) {
+            boolean checkIgnore = false;
+            for(Rectangle region : ignore) {
+                if(region.contains(tile)) {
+                    return 0;
+                }
+                checkIgnore |= region.intersects(tile);
+            }
+            long different = 0;
+            for(int y = tile.y; y < tile.y + tile.height; y++) {
+                int offset = y * actual.width;
+                for(int x = tile.x; x < tile.x + tile.width; x++) {
+                    int expected = baseline.pixels[offset + x];
+                    int pixel = actual.pixels[offset + x];
+                    if(expected != pixel && exceedsTolerance(expected, pixel) && !(checkIgnore && ignored(ignore, x, y))) {
+                        different++;
+                    }
+                }
+            }
+            return different;
+        }
+
+        private boolean exceedsTolerance(int expected, int pixel) {
+            return Math.abs(((expected >> 16) & 0xFF) - ((pixel >> 16) & 0xFF)) > tolerance
+                    || Math.abs(((expected >> 8) & 0xFF) - ((pixel >> 8) & 0xFF)) > tolerance
+                    || Math.abs((expected & 0xFF) - (pixel & 0xFF)) > tolerance;
+        }
+    }
+}
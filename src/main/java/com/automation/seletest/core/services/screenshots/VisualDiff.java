@@ -0,0 +1,89 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.screenshots;
+
+import java.awt.Rectangle;
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * Result of a visual comparison against a baseline
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Getter
+public class VisualDiff {
+
+    /**Name of baseline*/
+    private final String name;
+
+    /**Pixels that differ beyond tolerance*/
+    private final long differentPixels;
+
+    /**Pixels compared (outside of ignore regions)*/
+    private final long comparedPixels;
+
+    /**Tiles with differences*/
+    private final List<Rectangle> changedTiles;
+
+    /**Max ratio of different pixels for a match*/
+    private final double threshold;
+
+    /**True if there was no baseline and the actual screenshot became the baseline*/
+    private final boolean baselineCreated;
+
+    public VisualDiff(String name, long differentPixels, long comparedPixels, List<Rectangle> changedTiles, double threshold, boolean baselineCreated) {
+        this.name = name;
+        this.differentPixels = differentPixels;
+        this.comparedPixels = comparedPixels;
+        this.changedTiles = changedTiles;
+        this.threshold = threshold;
+        this.baselineCreated = baselineCreated;
+    }
+
+    /**
+     * Ratio of different pixels
+     * @return ratio between 0 and 1
+     */
+    public double getRatio() {
+        return comparedPixels == 0 ? 0 : (double) differentPixels / comparedPixels;
+    }
+
+    /**
+     * Defines if screenshot matches baseline
+     * @return true if ratio of different pixels does not exceed threshold
+     */
+    public boolean isMatch() {
+        return getRatio() <= threshold;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d of %d pixels differ (%.4f%%) in %d tiles", name, differentPixels, comparedPixels, getRatio() * 100, changedTiles.size());
+    }
+}
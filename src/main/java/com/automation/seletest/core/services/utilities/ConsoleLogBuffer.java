@@ -0,0 +1,100 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.utilities;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Bounded store of the latest browser console entries of a session
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+public class ConsoleLogBuffer {
+
+    /**Latest entries, oldest are dropped*/
+    private final ArrayDeque<String> entries;
+
+    /**Max entries kept*/
+    private final int capacity;
+
+    /**Entries dropped from memory (already written to disk)*/
+    @Getter
+    private long dropped;
+
+    /**Time of last collection in millis*/
+    private long lastCollect;
+
+    /**False if driver does not provide browser logs*/
+    @Getter @Setter
+    private boolean supported = true;
+
+    public ConsoleLogBuffer(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.entries = new ArrayDeque<>(this.capacity);
+    }
+
+    /**
+     * Defines if logs should be collected now and marks the collection
+     * @param intervalMillis min time between collections
+     * @return true if interval passed since last collection
+     */
+    public synchronized boolean due(long intervalMillis) {
+        long now = System.currentTimeMillis();
+        if(now - lastCollect < intervalMillis) {
+            return false;
+        }
+        lastCollect = now;
+        return true;
+    }
+
+    /**
+     * Add entries, dropping the oldest when capacity is exceeded
+     * @param lines formatted entries
+     */
+    public synchronized void add(List<String> lines) {
+        for(String line : lines) {
+            if(entries.size() == capacity) {
+                entries.pollFirst();
+                dropped++;
+            }
+            entries.addLast(line);
+        }
+    }
+
+    /**
+     * Latest entries kept in memory
+     * @return entries oldest first
+     */
+    public synchronized List<String> recent() {
+        return new ArrayList<>(entries);
+    }
+}
@@ -0,0 +1,257 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.utilities;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringEscapeUtils;
+import org.openqa.selenium.logging.LogEntry;
+import org.openqa.selenium.logging.LogType;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+import com.automation.seletest.core.selenium.threads.ExecutionContext;
+import com.automation.seletest.core.selenium.threads.SessionProperties;
+
+/**
+ * Collects browser console logs incrementally at action boundaries.
+ * Entries are tagged with the preceding action, kept in a bounded store per session
+ * and appended asynchronously to html/Logs/Logs_&lt;invocation&gt;.html
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Slf4j
+@Component
+public class ConsoleLogCollector {
+
+    /**Prefix of console log files*/
+    public static final String LOGS_PREFIX = "Logs_";
+
+    /** Environment instance*/
+    @Autowired
+    Environment env;
+
+    /**Renders the head of log files from the html template*/
+    @Autowired
+    FilesUtils fileService;
+
+    /**Directory of console log files*/
+    private volatile File directory = new File("./target/surefire-reports/html/Logs");
+
+    /**Entries kept in memory per session*/
+    private int bufferSize = 500;
+
+    /**Min time between collections of a session*/
+    private long intervalMillis = 1000;
+
+    /**Background writer*/
+    private ThreadPoolExecutor writer;
+
+    /**Last pending write*/
+    private volatile Future<?> lastWrite;
+
+    @PostConstruct
+    public void init() {
+        bufferSize = env.getProperty("console.buffer.size", Integer.class, bufferSize);
+        intervalMillis = env.getProperty("console.interval.millis", Long.class, intervalMillis);
+        writer = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(64), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "SeletestFramework - console log writer");
+                thread.setDaemon(true);
+                return thread;
+            }
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+        writer.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Set directory of console log files
+     * @param directory File directory
+     */
+    public void setDirectory(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Collect console entries of the current session if interval passed since last collection
+     * @param step the action executed before collection
+     */
+    public void collect(String step) {
+        ExecutionContext executionContext = ExecutionContext.current();
+        collect(executionContext.getInvocation() != null ? executionContext.getInvocation() : executionContext.getTest(), step, false);
+    }
+
+    /**
+     * Collect console entries of the current session
+     * @param invocation id of the test invocation the entries belong to
+     * @param step the action executed before collection
+     * @param force collect regardless of interval
+     * @return number of entries collected
+     */
+    public int collect(String invocation, String step, boolean force) {
+        SessionProperties<?> session = ExecutionContext.current().getSession();
+        if(session == null || !(session.getWebDriver() instanceof RemoteWebDriver)) {
+            return 0;
+        }
+        ConsoleLogBuffer buffer = buffer(session);
+        if(buffer == null || !buffer.isSupported() || (!buffer.due(intervalMillis) && !force)) {
+            return 0;
+        }
+        final List<String> lines = new ArrayList<>();
+        try {
+            SimpleDateFormat format = new SimpleDateFormat("HH:mm:ss.SSS");
+            for(LogEntry entry : session.getWebDriver().manage().logs().get(LogType.BROWSER)) {
+                lines.add(format.format(new Date(entry.getTimestamp())) + " [" + entry.getLevel() + "] after " + step + ": " + entry.getMessage());
+            }
+        } catch (Exception e) {
+            log.debug("Browser logs not available, stop collecting for session: {}", e.getMessage());
+            buffer.setSupported(false);
+            return 0;
+        }
+        if(!lines.isEmpty()) {
+            buffer.add(lines);
+            final File file = logFile(invocation);
+            lastWrite = writer.submit(new Runnable() {
+                @Override
+                public void run() {
+                    write(file, lines);
+                }
+            });
+        }
+        return lines.size();
+    }
+
+    /**
+     * Console log file of a test invocation
+     * @param invocation id of the test invocation
+     * @return File
+     */
+    public File logFile(String invocation) {
+        return new File(directory, LOGS_PREFIX + invocation + ".html");
+    }
+
+    /**
+     * Latest console entries of a session kept in memory
+     * @param session SessionProperties
+     * @param max max number of entries returned
+     * @return the latest entries oldest first, empty if logs are not collected for the session
+     */
+    public List<String> recent(SessionProperties<?> session, int max) {
+        if(session == null || session.getConsoleLogs() == null) {
+            return Collections.emptyList();
+        }
+        List<String> entries = session.getConsoleLogs().recent();
+        return entries.subList(Math.max(0, entries.size() - max), entries.size());
+    }
+
+    /**
+     * Wait for pending writes
+     * @param timeoutMillis max time to wait
+     */
+    public void flush(long timeoutMillis) {
+        Future<?> pending = lastWrite;
+        if(pending != null) {
+            try {
+                pending.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                log.error("Console logs not written: {}", e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writer.shutdown();
+    }
+
+    /**
+     * Buffer of session, created on the test thread and supported unless the test disabled
+     * client logs with the parameter the driver capabilities are built from
+     * @param session SessionProperties
+     * @return ConsoleLogBuffer, null if not created yet and called outside of a test thread
+     */
+    private ConsoleLogBuffer buffer(SessionProperties<?> session) {
+        if(session.getConsoleLogs() == null) {
+            ITestResult result = Reporter.getCurrentTestResult();
+            if(result == null) {
+                return null;
+            }
+            ConsoleLogBuffer buffer = new ConsoleLogBuffer(bufferSize);
+            String clientLogs = result.getMethod().getTestClass().getXmlTest().getAllParameters().get(env.getProperty("client_logs"));
+            buffer.setSupported(clientLogs == null || Boolean.parseBoolean(clientLogs));
+            session.setConsoleLogs(buffer);
+        }
+        return session.getConsoleLogs();
+    }
+
+    /**
+     * Append entries to console log file
+     * @param file File
+     * @param lines entries
+     */
+    private void write(File file, List<String> lines) {
+        StringBuilder html = new StringBuilder();
+        if(!file.exists()) {
+            try {
+                html.append(fileService.htmlHead("Logs for Client")).append('\n');
+            } catch (IOException e) {
+                log.error("Exception rendering head of console logs {}: {}", file, e.getMessage());
+            }
+        }
+        for(String line : lines) {
+            html.append("<p>").append(StringEscapeUtils.escapeHtml4(line)).append("</p>\n");
+        }
+        try {
+            FileUtils.writeStringToFile(file, html.toString(), StandardCharsets.UTF_8.name(), true);
+        } catch (IOException e) {
+            log.error("Exception writing console logs to {}: {}", file, e.getMessage());
+        }
+    }
+}
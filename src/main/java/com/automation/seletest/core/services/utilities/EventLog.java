@@ -0,0 +1,266 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.utilities;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Append only log of framework actions as JSON lines, one file per suite rewritten on every run.
+ * Events are copied in a preallocated buffer and written through a FileChannel when the buffer fills up or periodically.
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Slf4j
+@Component
+public class EventLog {
+
+    /**Prefix of event log files, followed by the name of suite*/
+    public static final String EVENTS_PREFIX = "events_";
+
+    /**Extension of event log files*/
+    public static final String EVENTS_EXTENSION = ".jsonl";
+
+    /** Environment instance*/
+    @Autowired
+    Environment env;
+
+    /**Emit events*/
+    @Getter
+    private boolean enabled = true;
+
+    /**Events written since start*/
+    @Getter
+    private long events;
+
+    /**Buffer of encoded events*/
+    private ByteBuffer buffer;
+
+    /**Channel of event log file*/
+    private FileChannel channel;
+
+    /**The event log file*/
+    @Getter
+    private File file = new File("./target/surefire-reports/html/Logs", "events" + EVENTS_EXTENSION);
+
+    /**Periodic flush*/
+    private ScheduledExecutorService flusher;
+
+    @PostConstruct
+    public void init() {
+        enabled = env.getProperty("events.enabled", Boolean.class, enabled);
+        long flushMillis = env.getProperty("events.flush.millis", Long.class, 1000L);
+        buffer = ByteBuffer.allocateDirect(env.getProperty("events.buffer.size", Integer.class, 64 * 1024));
+        if(enabled) {
+            flusher = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "SeletestFramework - event log");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            flusher.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    flush();
+                }
+            }, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Set directory and suite of event log, events of the previous file are flushed
+     * and events of a previous run of the suite are removed
+     * @param directory File directory
+     * @param suite the name of suite
+     */
+    public synchronized void setDirectory(File directory, String suite) {
+        File target = new File(directory, EVENTS_PREFIX + suite.replaceAll("[^A-Za-z0-9._-]", "_") + EVENTS_EXTENSION);
+        if(!target.equals(file)) {
+            close();
+            file = target;
+            if(file.exists() && !file.delete()) {
+                log.error("Events of previous run not removed from {}", file);
+            }
+        }
+    }
+
+    /**
+     * Emit event of an action
+     * @param session id of session
+     * @param test the name of test
+     * @param method the invoked method
+     * @param locator the locator (first argument) of method
+     * @param nanos execution time in nanos
+     * @param outcome ok or the simple name of exception thrown
+     * @param retries retries consumed during the action
+     */
+    public void emit(String session, String test, String method, Object locator, long nanos, String outcome, int retries) {
+        if(!enabled) {
+            return;
+        }
+        StringBuilder event = new StringBuilder(256);
+        event.append("{\"ts\":").append(System.currentTimeMillis());
+        field(event, "session", session);
+        field(event, "test", test);
+        field(event, "method", method);
+        field(event, "locator", locator == null ? null : locator.toString());
+        event.append(",\"us\":").append(nanos / 1000);
+        field(event, "outcome", outcome);
+        event.append(",\"retries\":").append(retries).append("}\n");
+        write(event.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Write buffered events to file
+     */
+    public synchronized void flush() {
+        if(buffer.position() == 0) {
+            return;
+        }
+        buffer.flip();
+        try {
+            FileChannel out = channel();
+            while(buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+        } catch (IOException e) {
+            log.error("Exception writing events to {}: {}", file, e.getMessage());
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Flush and close event log file
+     */
+    public synchronized void close() {
+        flush();
+        if(channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.error("Exception closing event log {}: {}", file, e.getMessage());
+            }
+            channel = null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if(flusher != null) {
+            flusher.shutdown();
+        }
+        close();
+    }
+
+    /**
+     * Copy encoded event to buffer, flushing it when full
+     * @param bytes encoded event
+     */
+    private synchronized void write(byte[] bytes) {
+        if(bytes.length > buffer.remaining()) {
+            flush();
+        }
+        if(bytes.length > buffer.capacity()) {
+            try {
+                channel().write(ByteBuffer.wrap(bytes));
+            } catch (IOException e) {
+                log.error("Exception writing event to {}: {}", file, e.getMessage());
+            }
+        } else {
+            buffer.put(bytes);
+        }
+        events++;
+    }
+
+    private FileChannel channel() throws IOException {
+        if(channel == null) {
+            file.getAbsoluteFile().getParentFile().mkdirs();
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+
+    /**
+     * Append json string field
+     */
+    private static void field(StringBuilder event, String name, String value) {
+        event.append(",\"").append(name).append("\":");
+        if(value == null) {
+            event.append("null");
+            return;
+        }
+        event.append('"');
+        for(int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '"':
+                event.append("\\\"");
+                break;
+            case '\\':
+                event.append("\\\\");
+                break;
+            case '\n':
+                event.append("\\n");
+                break;
+            case '\r':
+                event.append("\\r");
+                break;
+            case '\t':
+                event.append("\\t");
+                break;
+            default:
+                if(c < 0x20) {
+                    event.append(String.format("\\u%04x", (int) c));
+                } else {
+                    event.append(c);
+                }
+            }
+        }
+        event.append('"');
+    }
+}
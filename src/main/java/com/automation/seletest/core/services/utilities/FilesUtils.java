@@ -30,19 +30,25 @@ package com.automation.seletest.core.services.utilities;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
 import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.Date;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
-import jxl.Cell;
-import jxl.Sheet;
-import jxl.Workbook;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
-import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.testng.Reporter;
 import org.testng.SkipException;
@@ -50,6 +56,12 @@ import org.testng.SkipException;
 import au.com.bytecode.opencsv.CSVReader;
 
 import com.automation.seletest.core.services.annotations.DataSource;
+import com.automation.seletest.core.services.data.CompiledDataset;
+import com.automation.seletest.core.services.data.CsvRowIterator;
+import com.automation.seletest.core.services.data.DataSourceCache;
+import com.automation.seletest.core.services.data.DatasetCompiler;
+import com.automation.seletest.core.services.data.ExcelWorkbookCache;
+import com.automation.seletest.core.services.data.XlsxRowIterator;
 
 /**
  * This class operates as a service for reading properties from various input types
@@ -62,6 +74,17 @@ public class FilesUtils {
     /** Constant for html template*/
     private final String HTML_TEMPLATE="template.html";
 
+    /**Compiled templates*/
+    private final ConcurrentMap<String, HtmlTemplate> templates = new ConcurrentHashMap<>();
+
+    /**Parsed data sources shared by tests*/
+    @Autowired
+    private DataSourceCache dataCache;
+
+    /**Parsed excel workbooks*/
+    @Getter
+    private final ExcelWorkbookCache workbooks = new ExcelWorkbookCache();
+
     /**
      * Read data from CSV file
      * @param filepath
@@ -100,41 +123,48 @@ public class FilesUtils {
     }
 
     /**
-     * make a filename within the reportng folders so we can use relative paths.
-     * @return the file
-     * @throws IOException
+     * Read data from various external sources and return to a Map,
+     * parsed once per file and shared by all tests
+     * @param method
+     * @return unmodifiable Map with the data
      */
-    public File createScreenshotFile() throws IOException {
-        if (Reporter.getCurrentTestResult().getTestContext().getSuite().getOutputDirectory() != null) {
-            File outputDir = new File(new File(Reporter.getCurrentTestResult().getTestContext().getSuite().getOutputDirectory()).getParent(), "/html/screenshots");
-            FileUtils.forceMkdir(outputDir);
-            return new File(outputDir, "screenshot-" + System.nanoTime() + ".png");
+    public Map<String, String> readData(final Method method) {
+        final String inputFile=new File(dataSource(method).filePath()).getAbsolutePath();
+        try {
+            return dataCache.get(new File(inputFile), "map", new DataSourceCache.Loader<Map<String, String>>() {
+                @Override
+                public Map<String, String> load(File file) {
+                    return Collections.unmodifiableMap(parseData(inputFile));
+                }
+            });
+        } catch (SkipException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Exception during loading test data sources: "+e);
+            throw new SkipException("Data not loaded for test execution!!!");
         }
-        return new File("screenshot-" + System.nanoTime() + ".png");
     }
 
     /**
-     * Read data from various external sources and return to a Map
-     * @param method
-     * @return
+     * Parse the data of a properties (or its compiled data set) or csv source.
+     * Csv files are read as key/value lines here, their compiled data sets hold rows under a header
+     * and serve the csv data provider only.
+     * @param inputFile
+     * @return Map with the data
      */
-    public Map<String, String> readData(final Method method) {
-
-        String inputFile=null;
-        DataSource testData=null;
+    private Map<String, String> parseData(String inputFile) {
         Map<String, String> data = new HashMap<String, String>();
 
-        if(method.isAnnotationPresent(DataSource.class) && method.getAnnotation(DataSource.class).filePath() !=""){
-            testData=method.getAnnotation(DataSource.class);
-        } else if(method.getDeclaringClass().isAnnotationPresent(DataSource.class) && method.getDeclaringClass().getAnnotation(DataSource.class).filePath()!=""){
-            testData=method.getDeclaringClass().getAnnotation(DataSource.class);
-        } else {
-            throw new SkipException("The path to the file is undefined!!!");
-        }
-
-        inputFile=new File(testData.filePath()).getAbsolutePath();
-
         if(inputFile.endsWith(".properties")) {
+            CompiledDataset compiled=compiled(inputFile);
+            if(compiled!=null && compiled.getRows()>0) {
+                for(Map.Entry<String, String> entry : compiled.row(0).entrySet()) {
+                    if(!entry.getValue().isEmpty()) {
+                        data.put(entry.getKey(), entry.getValue());
+                    }
+                }
+                return data;
+            }
             data=readDataFromProperties(inputFile);
         } else if(inputFile.endsWith(".csv")) {
             data=readcsvData(inputFile);
@@ -142,6 +172,65 @@ public class FilesUtils {
         return data;
     }
 
+    /**
+     * Stream data rows from the external source of the method.
+     * CSV and XLSX files are read lazily one row per invocation with the header as keys,
+     * properties files give a single row with all the properties.
+     * @param method
+     * @return Iterator<Object[]> for a TestNG data provider
+     */
+    public Iterator<Object[]> streamData(final Method method) {
+        DataSource testData=dataSource(method);
+        String inputFile=new File(testData.filePath()).getAbsolutePath();
+        CompiledDataset compiled=compiled(inputFile, testData.sheet());
+        if(compiled!=null) {
+            return compiled.iterator();
+        } else if(inputFile.endsWith(".csv")) {
+            return new CsvRowIterator(inputFile);
+        } else if(inputFile.endsWith(".xlsx")) {
+            return new XlsxRowIterator(inputFile, testData.sheet());
+        }
+        return Collections.singletonList(new Object[] { readData(method) }).iterator();
+    }
+
+    /**
+     * Open the compiled data set of a source if it is newer than the source
+     * @param inputFile the source file
+     * @param qualifiers sheet and table names
+     * @return CompiledDataset or null to parse the source
+     */
+    private CompiledDataset compiled(String inputFile, String... qualifiers) {
+        File source=new File(inputFile);
+        File compiled=DatasetCompiler.compiledFile(source, qualifiers);
+        if(DatasetCompiler.isFresh(compiled, source)) {
+            try {
+                return dataCache.get(compiled, "compiled", new DataSourceCache.Loader<CompiledDataset>() {
+                    @Override
+                    public CompiledDataset load(File file) throws IOException {
+                        return CompiledDataset.open(file);
+                    }
+                });
+            } catch (Exception e) {
+                log.warn("Compiled data set {} not readable, parsing the source: {}",compiled,e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Find the DataSource annotation of the method or its class
+     * @param method
+     * @return DataSource with a defined file path
+     */
+    private DataSource dataSource(final Method method) {
+        if(method.isAnnotationPresent(DataSource.class) && method.getAnnotation(DataSource.class).filePath() !=""){
+            return method.getAnnotation(DataSource.class);
+        } else if(method.getDeclaringClass().isAnnotationPresent(DataSource.class) && method.getDeclaringClass().getAnnotation(DataSource.class).filePath()!=""){
+            return method.getDeclaringClass().getAnnotation(DataSource.class);
+        }
+        throw new SkipException("The path to the file is undefined!!!");
+    }
+
     /**
      * Read Data from a properties file
      * @param inputFile
@@ -180,26 +269,9 @@ public class FilesUtils {
     public String[][] getTableArray(String xlFilePath, String sheetName, String tableName){
         String[][] tabArray=null;
         try{
-            Workbook workbook = Workbook.getWorkbook(new File(xlFilePath));
-            Sheet sheet = workbook.getSheet(sheetName);
-            int startRow,startCol, endRow, endCol,ci,cj;
-            Cell tableStart=sheet.findCell(tableName);
-            startRow=tableStart.getRow();
-            startCol=tableStart.getColumn();
-            Cell tableEnd= sheet.findCell(tableName, startCol+1,startRow+1, 100, 64000,  false);
-            endRow=tableEnd.getRow();
-            endCol=tableEnd.getColumn();
-            tabArray=new String[endRow-startRow-1][endCol-startCol-1];
-            ci=0;
-
-            for (int i=startRow+1;i<endRow;i++,ci++){
-                cj=0;
-                for (int j=startCol+1;j<endCol;j++,cj++){
-                    tabArray[ci][cj]=sheet.getCell(j,i).getContents();
-                }
-            }
+            CompiledDataset compiled=compiled(xlFilePath, sheetName, tableName);
+            tabArray=compiled!=null ? compiled.table() : workbooks.table(xlFilePath, sheetName, tableName);
             log.debug("Excel table read for file: {}",xlFilePath);
-
         }
         catch (Exception e)    {
             log.error("Exception during reading from Excel file occured: "+e);
@@ -208,23 +280,35 @@ public class FilesUtils {
     }
 
     /**
-     * Create an HTML file from template
-     * @param title
-     * @param body
+     * Head of an HTML file from template, up to its body, for files whose entries are appended
+     * @param title the title of page
+     * @return String head of html
+     * @throws IOException if the template is not available
      */
-    public void createHTML(String title, String body, String filename) {
-        try {
-            File htmlTemplateFile = new File(getClass().getClassLoader().getResource(HTML_TEMPLATE).getPath()).getAbsoluteFile();
-            String htmlString;
-            htmlString = FileUtils.readFileToString(htmlTemplateFile);
-            htmlString = htmlString.replace("$title", title);
-            htmlString = htmlString.replace("$body", body);
-            File newHtmlFile = new File(new File(Reporter.getCurrentTestResult().getTestContext().getSuite().getOutputDirectory()).getParentFile(),"/html/Logs/"+filename+".html");
-            FileUtils.writeStringToFile(newHtmlFile, htmlString);
-        } catch (IOException e) {
-            log.error("Exception during reading template.html: "+e);
-        }
+    public String htmlHead(String title) throws IOException {
+        StringWriter out = new StringWriter();
+        template(HTML_TEMPLATE).renderUntil("body", Collections.singletonMap("title", title), out);
+        return out.toString();
     }
 
+    /**
+     * Template from classpath, compiled once
+     * @param name the classpath resource
+     * @return HtmlTemplate
+     * @throws IOException
+     */
+    private HtmlTemplate template(String name) throws IOException {
+        HtmlTemplate template = templates.get(name);
+        if(template == null) {
+            try (InputStream in = getClass().getClassLoader().getResourceAsStream(name)) {
+                if(in == null) {
+                    throw new IOException("Template "+name+" not found in classpath");
+                }
+                template = new HtmlTemplate(IOUtils.toString(in, StandardCharsets.UTF_8.name()), "title", "body");
+            }
+            templates.putIfAbsent(name, template);
+        }
+        return template;
+    }
 
 }
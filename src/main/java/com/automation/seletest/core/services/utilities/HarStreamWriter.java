@@ -0,0 +1,159 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.utilities;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import net.lightbody.bmp.core.har.Har;
+import net.lightbody.bmp.core.har.HarEntry;
+import net.lightbody.bmp.core.har.HarLog;
+import net.lightbody.bmp.core.har.HarNameVersion;
+import net.lightbody.bmp.core.har.HarPage;
+import net.lightbody.bmp.core.har.HarPageTimings;
+
+import org.codehaus.jackson.JsonEncoding;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.map.ObjectMapper;
+
+/**
+ * Writes HAR segments incrementally to a gzip compressed file.
+ * Entries are streamed as each segment is appended, pages and creator are written on close.
+ * A side index (&lt;file&gt;.idx) keeps the timings of every page as tab separated lines.
+ * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
+ *
+ */
+public class HarStreamWriter implements Closeable {
+
+    /**Size of output buffers*/
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**Mapper for har objects*/
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /**Json output*/
+    private final JsonGenerator json;
+
+    /**Index of page timings*/
+    private final Writer index;
+
+    /**Pages of all appended segments*/
+    private final List<HarPage> pages = new ArrayList<>();
+
+    /**Creator of har*/
+    private HarNameVersion creator;
+
+    /**Entries written*/
+    private long entries;
+
+    public HarStreamWriter(File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        json = mapper.getJsonFactory().createJsonGenerator(new GZIPOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE), BUFFER_SIZE), JsonEncoding.UTF8);
+        index = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(FileChannel.open(new File(file.getPath() + ".idx").toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)), StandardCharsets.UTF_8));
+        index.write("page\ttitle\tstarted\tonContentLoad\tonLoad\tentries\n");
+        json.writeStartObject();
+        json.writeObjectFieldStart("log");
+        json.writeStringField("version", "1.2");
+        json.writeArrayFieldStart("entries");
+    }
+
+    /**
+     * Stream entries of a har segment and index its pages
+     * @param har Har segment
+     * @throws IOException
+     */
+    public synchronized void append(Har har) throws IOException {
+        if(har == null || har.getLog() == null) {
+            return;
+        }
+        HarLog log = har.getLog();
+        if(creator == null) {
+            creator = log.getCreator();
+        }
+        Map<String, Integer> pageEntries = new HashMap<>();
+        for(HarEntry entry : log.getEntries()) {
+            mapper.writeValue(json, entry);
+            Integer count = pageEntries.get(entry.getPageref());
+            pageEntries.put(entry.getPageref(), count == null ? 1 : count + 1);
+            entries++;
+        }
+        for(HarPage page : log.getPages()) {
+            Integer count = pageEntries.get(page.getId());
+            pages.add(page);
+            HarPageTimings timings = page.getPageTimings();
+            index.write(page.getId() + "\t" + page.getTitle() + "\t" + (page.getStartedDateTime() == null ? "" : page.getStartedDateTime().getTime()) + "\t"
+                    + (timings == null ? "" : timings.getOnContentLoad()) + "\t" + (timings == null ? "" : timings.getOnLoad()) + "\t" + (count == null ? 0 : count) + "\n");
+        }
+    }
+
+    /**
+     * Entries written so far
+     * @return number of entries
+     */
+    public synchronized long getEntries() {
+        return entries;
+    }
+
+    /**
+     * Write pages and creator and close output
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            json.writeEndArray();
+            json.writeFieldName("pages");
+            mapper.writeValue(json, pages);
+            if(creator != null) {
+                json.writeFieldName("creator");
+                mapper.writeValue(json, creator);
+            }
+            json.writeEndObject();
+            json.writeEndObject();
+        } finally {
+            try {
+                json.close();
+            } finally {
+                index.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.utilities;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Template compiled once into literal parts and placeholder slots ($name)
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+public class HtmlTemplate {
+
+    /**Literal parts, one more than slots*/
+    private final List<String> literals = new ArrayList<>();
+
+    /**Names of slots between literal parts*/
+    private final List<String> slots = new ArrayList<>();
+
+    /**
+     * Compile template
+     * @param text the template
+     * @param names the names of placeholders, referenced in template as $name
+     */
+    public HtmlTemplate(String text, String... names) {
+        int start = 0;
+        int position = text.indexOf('$');
+        while (position >= 0) {
+            String slot = slotAt(text, position, names);
+            if(slot != null) {
+                literals.add(text.substring(start, position));
+                slots.add(slot);
+                start = position + 1 + slot.length();
+            }
+            position = text.indexOf('$', slot == null ? position + 1 : start);
+        }
+        literals.add(text.substring(start));
+    }
+
+    /**
+     * Render template
+     * @param values values of placeholders, missing values render empty
+     * @param out Writer to render to
+     * @throws IOException
+     */
+    public void render(Map<String, String> values, Writer out) throws IOException {
+        for(int i = 0; i < slots.size(); i++) {
+            out.write(literals.get(i));
+            String value = values.get(slots.get(i));
+            if(value != null) {
+                out.write(value);
+            }
+        }
+        out.write(literals.get(slots.size()));
+    }
+
+    /**
+     * Render template up to a placeholder, for files whose content at the placeholder is appended afterwards
+     * @param slot the name of placeholder to stop at
+     * @param values values of placeholders before slot, missing values render empty
+     * @param out Writer to render to
+     * @throws IOException
+     */
+    public void renderUntil(String slot, Map<String, String> values, Writer out) throws IOException {
+        for(int i = 0; i < slots.size(); i++) {
+            out.write(literals.get(i));
+            if(slots.get(i).equals(slot)) {
+                return;
+            }
+            String value = values.get(slots.get(i));
+            if(value != null) {
+                out.write(value);
+            }
+        }
+        out.write(literals.get(slots.size()));
+    }
+
+    /**
+     * Longest placeholder name starting after $ at position
+     */
+    private static String slotAt(String text, int position, String... names) {
+        String slot = null;
+        for(String name : names) {
+            if(text.startsWith(name, position + 1) && (slot == null || name.length() > slot.length())) {
+                slot = name;
+            }
+        }
+        return slot;
+    }
+}
@@ -30,8 +30,11 @@ import javax.annotation.PostConstruct;
 
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.testng.Reporter;
+
+import com.automation.seletest.core.selenium.threads.ExecutionContext;
+import com.automation.seletest.core.services.utilities.ReportWriter.Level;
 
 /**
  * Methods for logging
@@ -42,6 +45,9 @@ import org.testng.Reporter;
 @Slf4j
 public class LogUtils {
 
+    /**Asynchronous report writer*/
+    @Autowired
+    ReportWriter writer;
 
     @PostConstruct
     public void init(){
@@ -56,7 +62,7 @@ public class LogUtils {
      */
     public void info(String message, String style) {
         log.info(message);
-        Reporter.log("<p class=\"testOutput\" style="+style+">" + message + "</p>");
+        writer.append(ExecutionContext.current().getInvocation(), Level.INFO, message, style);
     }
 
     /**
@@ -74,7 +80,7 @@ public class LogUtils {
      */
     public void warn(String message, String style) {
         log.warn(message);
-        Reporter.log("<p class=\"testOutput\" style="+style+">" + message + "</p>");
+        writer.append(ExecutionContext.current().getInvocation(), Level.WARN, message, style);
     }
 
     /**
@@ -92,7 +98,7 @@ public class LogUtils {
      */
     public void error(String message, String style) {
         log.error(message);
-        Reporter.log("<b><p class=\"testOutput\" style="+style+">" + message + "</p></b>");
+        writer.append(ExecutionContext.current().getInvocation(), Level.ERROR, message, style);
     }
 
     /**
@@ -109,16 +115,7 @@ public class LogUtils {
      */
     public void verificationError(String message) {
         log.error(message);
-        String alertmessage="";
-        String beforeSplitMessage="";
-        if(message.contains("------")){
-            alertmessage=message.replace("'", "\"").split("------")[1];
-            beforeSplitMessage=message.split("------")[0];}
-        else {
-            alertmessage="Error without StackTrace!!!";
-            beforeSplitMessage=message;
-        }
-        Reporter.log("<b><p class=\"testOutput\" style=\"color:red; font-size:1em;\" onclick=\"javascript:alert('"+alertmessage+"');\">"+beforeSplitMessage+"</p></b>");
+        writer.append(ExecutionContext.current().getInvocation(), Level.VERIFICATION, message, null);
     }
 
 
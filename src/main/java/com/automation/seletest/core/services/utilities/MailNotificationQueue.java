@@ -0,0 +1,231 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.utilities;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Queue of failure notifications sent off the test thread.
+ * Notifications are coalesced per recipient into periodic digests, with a limit of mails per recipient and hour;
+ * notifications over the limit wait for the next digest. Everything pending is sent on flush.
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Slf4j
+@Component
+public class MailNotificationQueue {
+
+    /**One hour in millis*/
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    /** Environment instance*/
+    @Autowired
+    Environment env;
+
+    /**Mail service*/
+    @Autowired
+    MailUtils mailService;
+
+    /**Notifications not yet picked up by a digest*/
+    private BlockingQueue<Notification> queue;
+
+    /**Notifications waiting for the rate limit per recipient*/
+    private final Map<String, List<Notification>> pending = new LinkedHashMap<>();
+
+    /**Send times of the last hour per recipient*/
+    private final ConcurrentMap<String, Deque<Long>> sent = new ConcurrentHashMap<>();
+
+    /**Notifications dropped because queue was full*/
+    @Getter
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**Max mails per recipient and hour*/
+    private int maxPerHour = 10;
+
+    /**Sends digests periodically*/
+    private ScheduledExecutorService sender;
+
+    @PostConstruct
+    public void init() {
+        queue = new LinkedBlockingQueue<>(env.getProperty("mail.queue.size", Integer.class, 1000));
+        maxPerHour = env.getProperty("mail.max.per.hour", Integer.class, maxPerHour);
+        long digestMillis = env.getProperty("mail.digest.millis", Long.class, 60000L);
+        sender = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "SeletestFramework - mail digest");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        sender.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                digest(false);
+            }
+        }, digestMillis, digestMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queue failure notification, never blocks the caller
+     * @param to recipient
+     * @param subject the subject of notification
+     * @param body the body of notification
+     */
+    public void notifyFailure(String to, String subject, String body) {
+        if(!queue.offer(new Notification(to, subject, body))) {
+            if(dropped.incrementAndGet() == 1) {
+                log.warn("Mail notification queue is full, notifications are dropped");
+            }
+        }
+    }
+
+    /**
+     * Send all pending notifications regardless of rate limit
+     */
+    public void flush() {
+        digest(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdown();
+        flush();
+    }
+
+    /**
+     * Send one digest per recipient, notifications of a digest that failed to be sent wait for the next one
+     * @param force ignore rate limit
+     */
+    synchronized void digest(boolean force) {
+        List<Notification> drained = new ArrayList<>();
+        queue.drainTo(drained);
+        for(Notification notification : drained) {
+            List<Notification> recipient = pending.get(notification.to);
+            if(recipient == null) {
+                recipient = new ArrayList<>();
+                pending.put(notification.to, recipient);
+            }
+            recipient.add(notification);
+        }
+        for(String to : new ArrayList<>(pending.keySet())) {
+            if(!force && !allowed(to)) {
+                log.debug("Mail rate limit reached for {}, {} notifications wait for next digest", to, pending.get(to).size());
+                continue;
+            }
+            try {
+                send(to, pending.get(to));
+                pending.remove(to);
+            } catch (Exception e) {
+                if(!force) {
+                    sent.get(to).pollLast();
+                }
+                log.error("Exception sending mail digest to {}, {} notifications wait for next digest: {}", to, pending.get(to).size(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Defines if a mail can be sent to recipient and records it
+     * @param to recipient
+     * @return true if limit per hour not reached
+     */
+    private boolean allowed(String to) {
+        Deque<Long> times = sent.get(to);
+        if(times == null) {
+            times = new ArrayDeque<>();
+            sent.put(to, times);
+        }
+        long now = System.currentTimeMillis();
+        while(!times.isEmpty() && now - times.peekFirst() > HOUR) {
+            times.pollFirst();
+        }
+        if(times.size() >= maxPerHour) {
+            return false;
+        }
+        times.addLast(now);
+        return true;
+    }
+
+    /**
+     * Send digest of notifications
+     * @param to recipient
+     * @param notifications List of notifications
+     */
+    private void send(String to, List<Notification> notifications) {
+        if(notifications.size() == 1) {
+            mailService.sendMail(to, notifications.get(0).subject, notifications.get(0).body);
+            return;
+        }
+        StringBuilder body = new StringBuilder();
+        for(Notification notification : notifications) {
+            body.append(notification.subject).append("\n").append(notification.body).append("\n\n");
+        }
+        mailService.sendMail(to, notifications.size() + " test failures", body.toString());
+        log.debug("Mail digest with {} notifications sent to {}", notifications.size(), to);
+    }
+
+    /**
+     * Queued notification
+     */
+    private static class Notification {
+
+        final String to;
+        final String subject;
+        final String body;
+
+        Notification(String to, String subject, String body) {
+            this.to = to;
+            this.subject = subject;
+            this.body = body;
+        }
+    }
+}
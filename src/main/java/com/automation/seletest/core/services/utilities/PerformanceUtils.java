@@ -27,8 +27,11 @@ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.automation.seletest.core.services.utilities;
 
+import java.io.BufferedOutputStream;
+import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 
 import lombok.Getter;
 import lombok.Setter;
@@ -41,6 +44,8 @@ import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Service;
 
+import com.automation.seletest.core.selenium.threads.ExecutionContext;
+
 /**
  * Performance class
  * @author Giannis Papadakis (mailTo:gpapadakis84@gmail.com)
@@ -55,6 +60,15 @@ public class PerformanceUtils {
     @Getter @Setter Proxy proxy;
     @Getter @Setter Har har;
 
+    /**Directory of har files*/
+    private static final String HAR_DIRECTORY = "./target/surefire-reports/logs";
+
+    /**The har file of streamed segments*/
+    @Getter @Setter File harFile;
+
+    /**Writer of streamed segments*/
+    private HarStreamWriter harWriter;
+
     /**
      * Starts the proxy server
      * @param port
@@ -99,14 +113,82 @@ public class PerformanceUtils {
      * @throws IOException
      */
     public void writePerformanceData(String path, Har harFile){
-        try{
-            FileOutputStream fos = new FileOutputStream(path);
+        try(OutputStream fos = new BufferedOutputStream(new FileOutputStream(path))){
             harFile.writeTo(fos);}
         catch(Exception ex){
             log.error("Cannot write to external file: {}",ex.getMessage());
         }
     }
 
+    /**
+     * Starts a new page, the har of the previous pages is streamed to file and released from memory.
+     * If the segment cannot be written the file is closed with the segments written so far
+     * @param pageRef the name of the new page
+     * @return The instance of the class
+     */
+    public PerformanceUtils newPage(String pageRef){
+        try {
+            writer().append(server.newHar(pageRef));
+        } catch (IOException ex) {
+            log.error("Cannot stream har segment to file: {}",ex.getMessage());
+            closeWriter();
+        }
+        return this;
+    }
+
+    /**
+     * Streams the remaining har to file and closes it
+     * @param file the gzip compressed har file, null to keep the file of started pages
+     * @return the har file written
+     */
+    public File finishHar(File file){
+        if(harWriter == null && file != null) {
+            harFile = file;
+        }
+        try {
+            writer().append(server.getHar());
+        } catch (IOException ex) {
+            log.error("Cannot write to external file: {}",ex.getMessage());
+        } finally {
+            closeWriter();
+        }
+        return harFile;
+    }
+
+    /**
+     * Close the writer of har segments, the next segment opens a new one
+     */
+    private void closeWriter() {
+        if(harWriter == null) {
+            return;
+        }
+        try {
+            harWriter.close();
+            log.debug("{} har entries written to {}", harWriter.getEntries(), harFile.getAbsolutePath());
+        } catch (IOException ex) {
+            log.error("Cannot close har file {}: {}", harFile, ex.getMessage());
+        } finally {
+            harWriter = null;
+        }
+    }
+
+    /**
+     * Writer of har segments, opened on first use
+     * @return HarStreamWriter
+     * @throws IOException
+     */
+    private HarStreamWriter writer() throws IOException {
+        if(harWriter == null) {
+            if(harFile == null) {
+                String test = ExecutionContext.current().getTest();
+                harFile = new File(HAR_DIRECTORY, (test == null ? "performance" : test) + ".har.gz");
+            }
+            harFile.getAbsoluteFile().getParentFile().mkdirs();
+            harWriter = new HarStreamWriter(harFile);
+        }
+        return harWriter;
+    }
+
     /**
      * Stops proxy server
      * @param server
@@ -0,0 +1,347 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.utilities;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+/**
+ * Asynchronous writer of report entries.
+ * Entries are kept in a bounded ring buffer per test invocation and drained in batches by a background thread
+ * into a per invocation html file, while TestNG Reporter only keeps a link to that file.
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Slf4j
+@Component
+public class ReportWriter {
+
+    /**Type of report entry*/
+    public enum Level {INFO, WARN, ERROR, VERIFICATION}
+
+    /**Key of entries logged outside of a test*/
+    private static final String SUITE = "suite";
+
+    /**Prefix of report files*/
+    private static final String REPORT_PREFIX = "Report_";
+
+    /** Environment instance*/
+    @Autowired
+    Environment env;
+
+    /**Directory of report files*/
+    @Getter
+    File directory = new File("./target/surefire-reports/html/Logs");
+
+    /**Write entries asynchronously, if false entries go straight to TestNG Reporter*/
+    @Getter
+    private boolean async = true;
+
+    /**Capacity of ring buffer per test*/
+    private int bufferSize = 1024;
+
+    /**Period of background flush in millis*/
+    private long flushMillis = 200;
+
+    /**Ring buffers per test invocation*/
+    private final ConcurrentMap<String, BlockingQueue<Entry>> buffers = new ConcurrentHashMap<>();
+
+    /**Invocations started per test method*/
+    private final ConcurrentMap<String, AtomicInteger> invocations = new ConcurrentHashMap<>();
+
+    /**The background writer*/
+    private ScheduledExecutorService writer;
+
+    @PostConstruct
+    public void init() {
+        async = env.getProperty("report.async", Boolean.class, async);
+        bufferSize = env.getProperty("report.buffer.size", Integer.class, bufferSize);
+        flushMillis = env.getProperty("report.flush.millis", Long.class, flushMillis);
+        if(async) {
+            writer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "SeletestFramework - report writer");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            writer.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    flush();
+                }
+            }, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Set directory of report files and start the report of entries logged outside of a test
+     * @param directory the directory of report files
+     */
+    public void setDirectory(File directory) {
+        this.directory = directory;
+        if(async) {
+            open(SUITE);
+        }
+    }
+
+    /**
+     * Start the report of a test invocation, must be called on the thread of the test.
+     * The report file is created (or truncated if left by a previous run) and linked in TestNG Reporter.
+     * @param testResult the result of the invocation
+     * @return the id of the invocation, unique per data row and retry of the test method
+     */
+    public String begin(ITestResult testResult) {
+        return begin(testResult.getMethod().getRealClass().getName() + "." + testResult.getMethod().getMethodName());
+    }
+
+    /**
+     * Start the report of the next invocation of a test method
+     * @param method the qualified name of the test method
+     * @return the id of the invocation
+     */
+    String begin(String method) {
+        AtomicInteger count = invocations.get(method);
+        if(count == null) {
+            AtomicInteger created = new AtomicInteger();
+            count = invocations.putIfAbsent(method, created);
+            if(count == null) {
+                count = created;
+            }
+        }
+        String invocation = method + "-" + count.getAndIncrement();
+        if(async) {
+            open(invocation);
+        }
+        return invocation;
+    }
+
+    /**
+     * Finish the report of a test invocation, writing its remaining entries
+     * @param invocation the id of the invocation
+     */
+    public void end(String invocation) {
+        if(invocation == null) {
+            return;
+        }
+        BlockingQueue<Entry> buffer = buffers.remove(invocation);
+        if(buffer != null) {
+            drain(invocation, buffer);
+        }
+    }
+
+    /**
+     * Append entry to the report of a test invocation
+     * @param invocation the id of the invocation, null for entries outside of a test
+     * @param level Level of entry
+     * @param message the message
+     * @param style css style of message
+     */
+    public void append(String invocation, Level level, String message, String style) {
+        Entry entry = new Entry(level, message, style);
+        if(!async) {
+            Reporter.log(entry.toHtml());
+            return;
+        }
+        String key = invocation == null ? SUITE : invocation;
+        BlockingQueue<Entry> buffer = buffer(key);
+        while(!buffer.offer(entry)) {
+            drain(key, buffer);
+        }
+        //buffer removed while offering, nobody else will drain it
+        if(buffers.get(key) != buffer) {
+            drain(key, buffer);
+        }
+    }
+
+    /**
+     * Write all buffered entries to report files, releasing the buffers left empty
+     */
+    public void flush() {
+        for(Map.Entry<String, BlockingQueue<Entry>> buffer : buffers.entrySet()) {
+            drain(buffer.getKey(), buffer.getValue());
+            if(buffer.getValue().isEmpty()) {
+                buffers.remove(buffer.getKey(), buffer.getValue());
+            }
+        }
+    }
+
+    /**
+     * Report file of a test invocation
+     * @param invocation the id of the invocation
+     * @return File report file
+     */
+    public File reportFile(String invocation) {
+        return new File(directory, REPORT_PREFIX + invocation + ".html");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if(writer != null) {
+            writer.shutdown();
+        }
+        flush();
+    }
+
+    /**
+     * Create or truncate the report file of a key and link it in TestNG Reporter
+     * @param key the id of the invocation
+     */
+    private void open(String key) {
+        File file = reportFile(key);
+        if(!directory.isDirectory() && !directory.mkdirs()) {
+            log.error("Could not create report directory {}", directory);
+        }
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, false), StandardCharsets.UTF_8))) {
+            out.write(header(key));
+        } catch (IOException e) {
+            log.error("Exception creating report file {}: {}", file, e.getMessage());
+        }
+        Reporter.log("<p class=\"testOutput\"><a href=\"Logs/" + REPORT_PREFIX + key + ".html\">Test Report</a></p>");
+    }
+
+    /**
+     * Html header of a report file
+     * @param key the id of the invocation
+     * @return String header
+     */
+    private String header(String key) {
+        return "<html><head><meta charset=\"UTF-8\"><title>" + key + "</title></head><body>\n";
+    }
+
+    /**
+     * Ring buffer of a test invocation
+     * @param key the id of the invocation
+     * @return BlockingQueue buffer
+     */
+    private BlockingQueue<Entry> buffer(String key) {
+        BlockingQueue<Entry> buffer = buffers.get(key);
+        if(buffer == null) {
+            BlockingQueue<Entry> created = new ArrayBlockingQueue<>(bufferSize);
+            buffer = buffers.putIfAbsent(key, created);
+            if(buffer == null) {
+                buffer = created;
+            }
+        }
+        return buffer;
+    }
+
+    /**
+     * Drain entries of a buffer to its report file
+     * @param key the id of the invocation
+     * @param buffer BlockingQueue to drain
+     */
+    private void drain(String key, BlockingQueue<Entry> buffer) {
+        synchronized (buffer) {
+            List<Entry> batch = new ArrayList<>(buffer.size());
+            buffer.drainTo(batch);
+            if(batch.isEmpty()) {
+                return;
+            }
+            File file = reportFile(key);
+            boolean created = !file.exists();
+            try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8))) {
+                if(created) {
+                    out.write(header(key));
+                }
+                for(Entry entry : batch) {
+                    out.write(entry.toHtml());
+                    out.write('\n');
+                }
+            } catch (IOException e) {
+                log.error("Exception writing report entries to {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Entry of report, formatted to html by the writer
+     */
+    private static class Entry {
+
+        final Level level;
+        final String message;
+        final String style;
+
+        Entry(Level level, String message, String style) {
+            this.level = level;
+            this.message = message;
+            this.style = style;
+        }
+
+        String toHtml() {
+            switch (level) {
+            case ERROR:
+                return "<b><p class=\"testOutput\" style=" + style + ">" + message + "</p></b>";
+            case VERIFICATION:
+                String alertmessage;
+                String beforeSplitMessage;
+                if(message.contains("------")) {
+                    alertmessage=message.replace("'", "\"").split("------")[1];
+                    beforeSplitMessage=message.split("------")[0];
+                } else {
+                    alertmessage="Error without StackTrace!!!";
+                    beforeSplitMessage=message;
+                }
+                return "<b><p class=\"testOutput\" style=\"color:red; font-size:1em;\" onclick=\"javascript:alert('"+alertmessage+"');\">"+beforeSplitMessage+"</p></b>";
+            default:
+                return "<p class=\"testOutput\" style=" + style + ">" + message + "</p>";
+            }
+        }
+    }
+}
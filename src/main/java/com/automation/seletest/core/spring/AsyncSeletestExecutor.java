@@ -35,7 +35,8 @@ import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.core.task.AsyncTaskExecutor;
 
-import com.automation.seletest.core.selenium.threads.SessionContext;
+import com.automation.seletest.core.selenium.threads.ExecutionContext;
+import com.automation.seletest.core.selenium.threads.SessionProperties;
 import com.automation.seletest.core.testNG.assertions.SoftAssert;
 
 /**
@@ -87,11 +88,12 @@ public class AsyncSeletestExecutor<T> implements AsyncTaskExecutor {
         Future<T> futureTask=null;
         try {
             futureTask = executor.submit(createCallable(task));
-            if(!((SessionContext.getSession().getAssertion()).getAssertion() instanceof SoftAssert)){
+            SessionProperties<?> session = ExecutionContext.current().getSession();
+            if(!((session.getAssertion()).getAssertion() instanceof SoftAssert)){
                 futureTask.get();
                 log.debug("Assertion finished: {} , proceed to the next one if exists!!!", task);
             } else {
-                SessionContext.getSession().getVerifications().add(futureTask);
+                session.getVerifications().add(futureTask);
             }
             log.debug("Future task submitted {}", task.toString());
         } catch (InterruptedException | ExecutionException e) {
@@ -103,20 +105,24 @@ public class AsyncSeletestExecutor<T> implements AsyncTaskExecutor {
     }
 
     /**
-     * Create callable task
+     * Create callable task, running with the execution context of the submitting thread
      * @param task
      * @return Callable
      */
     private Callable createCallable(final Callable task) {
+        final ExecutionContext executionContext = ExecutionContext.capture();
         return new Callable() {
             @Override
             public T call() throws Exception {
+                ExecutionContext previous = ExecutionContext.attach(executionContext);
                 try {
                     log.debug("Thread Id {} for thread: ", Thread.currentThread().getId(),Thread.currentThread().getName());
                     return (T) task.call();
                 } catch (Exception ex) {
                     handle(ex);
                     throw ex;
+                } finally {
+                    ExecutionContext.attach(previous);
                 }
             }
         };
@@ -124,18 +130,22 @@ public class AsyncSeletestExecutor<T> implements AsyncTaskExecutor {
 
 
     /**
-     * Create runnable task
+     * Create runnable task, running with the execution context of the submitting thread
      * @param task
      * @return Runnable
      */
     private Runnable createWrappedRunnable(final Runnable task) {
+        final ExecutionContext executionContext = ExecutionContext.capture();
         return new Runnable() {
             @Override
             public void run() {
+                ExecutionContext previous = ExecutionContext.attach(executionContext);
                 try {
                     task.run();
                 } catch (Exception ex) {
                     handle(ex);
+                } finally {
+                    ExecutionContext.attach(previous);
                 }
             }
         };
@@ -0,0 +1,339 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.spring;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import com.automation.seletest.core.selenium.threads.ExecutionContext;
+
+/**
+ * Task executor that gives every session its own bounded queue and dispatches
+ * the queues round robin onto a shared pool of workers, so a verification heavy
+ * session cannot starve the others.
+ * When the queue of a session is full the submitting thread waits up to
+ * executor.block.millis for space and then runs the task itself; tasks are never rejected.
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+@Slf4j
+@Component("fairSessionExecutor")
+public class FairSessionExecutor implements AsyncTaskExecutor {
+
+    /**Key of tasks submitted outside of a session*/
+    private static final Object NO_SESSION = new Object();
+
+    /** Environment instance*/
+    @Autowired
+    Environment env;
+
+    /**Queues per session, weak so queues of ended sessions are dropped*/
+    private final Map<Object, SessionQueue> queues = new WeakHashMap<>();
+
+    /**Sessions with queued tasks in dispatch order*/
+    private final Deque<SessionQueue> ready = new ArrayDeque<>();
+
+    /**Guards queues and ready*/
+    private final Object lock = new Object();
+
+    /**Shared workers, each dispatch runs one task of the next ready session*/
+    private ThreadPoolExecutor workers;
+
+    /**Capacity of each session queue*/
+    @Getter
+    private int sessionQueueCapacity = 10;
+
+    /**Max time a submitter waits for space before running the task itself*/
+    @Getter
+    private long blockMillis = 5000;
+
+    /**Tasks waiting in session queues*/
+    private final AtomicInteger queued = new AtomicInteger();
+
+    /**Highest number of waiting tasks*/
+    @Getter
+    private final AtomicInteger maxQueued = new AtomicInteger();
+
+    /**Tasks dispatched to workers*/
+    @Getter
+    private final AtomicLong dispatched = new AtomicLong();
+
+    /**Total queue wait of dispatched tasks*/
+    private final AtomicLong waitNanos = new AtomicLong();
+
+    /**Longest queue wait of a task*/
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    /**Submissions that had to wait for queue space*/
+    @Getter
+    private final AtomicLong blocked = new AtomicLong();
+
+    /**Submissions run by the submitting thread because the queue stayed full*/
+    @Getter
+    private final AtomicLong inlineRuns = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        int threads = env.getProperty("executor.workers", Integer.class, 20);
+        sessionQueueCapacity = env.getProperty("executor.session.queue", Integer.class, sessionQueueCapacity);
+        blockMillis = env.getProperty("executor.block.millis", Long.class, blockMillis);
+        workers = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "Seletest Thread Pool - " + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        workers.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        enqueue(new FutureTask<Object>(task, null));
+    }
+
+    @Override
+    public void execute(Runnable task, long startTimeout) {
+        enqueue(new FutureTask<Object>(task, null));
+    }
+
+    @Override
+    public Future<?> submit(Runnable task) {
+        return enqueue(new FutureTask<Object>(task, null));
+    }
+
+    @Override
+    public <T> Future<T> submit(Callable<T> task) {
+        return enqueue(new FutureTask<>(task));
+    }
+
+    /**
+     * Queue a task for the session of the current thread, blocking or running inline when full
+     * @param task
+     * @return the task as Future
+     */
+    private <T> FutureTask<T> enqueue(FutureTask<T> task) {
+        Object session = ExecutionContext.current().getSession();
+        SessionQueue queue = queue(session != null ? session : NO_SESSION);
+        Queued entry = new Queued(task);
+        int depth = queued.incrementAndGet();
+        try {
+            if(!queue.tasks.offer(entry)) {
+                blocked.incrementAndGet();
+                if(!queue.tasks.offer(entry, blockMillis, TimeUnit.MILLISECONDS)) {
+                    queued.decrementAndGet();
+                    inlineRuns.incrementAndGet();
+                    log.warn("Task queue of session {} full for {} ms, running task in submitting thread", queue.name, blockMillis);
+                    task.run();
+                    return task;
+                }
+            }
+        } catch (InterruptedException e) {
+            queued.decrementAndGet();
+            Thread.currentThread().interrupt();
+            task.cancel(false);
+            return task;
+        }
+        for(int max = maxQueued.get(); depth > max && !maxQueued.compareAndSet(max, depth); max = maxQueued.get()) {
+            //retry until max is updated
+        }
+        synchronized (lock) {
+            if(!queue.ready) {
+                queue.ready = true;
+                ready.offer(queue);
+            }
+        }
+        workers.execute(new Runnable() {
+            @Override
+            public void run() {
+                dispatch();
+            }
+        });
+        return task;
+    }
+
+    /**
+     * Run one task of the next ready session, moving the session to the end of the line
+     */
+    private void dispatch() {
+        Queued entry = null;
+        synchronized (lock) {
+            SessionQueue queue = ready.poll();
+            if(queue != null) {
+                entry = queue.tasks.poll();
+                if(queue.tasks.isEmpty()) {
+                    queue.ready = false;
+                } else {
+                    ready.offer(queue);
+                }
+            }
+        }
+        if(entry != null) {
+            queued.decrementAndGet();
+            dispatched.incrementAndGet();
+            long waited = System.nanoTime() - entry.enqueued;
+            waitNanos.addAndGet(waited);
+            for(long max = maxWaitNanos.get(); waited > max && !maxWaitNanos.compareAndSet(max, waited); max = maxWaitNanos.get()) {
+                //retry until max is updated
+            }
+            entry.task.run();
+        }
+    }
+
+    private SessionQueue queue(Object session) {
+        synchronized (lock) {
+            SessionQueue queue = queues.get(session);
+            if(queue == null) {
+                queue = new SessionQueue(session == NO_SESSION ? "none" : session.getClass().getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(session)), sessionQueueCapacity);
+                queues.put(session, queue);
+            }
+            return queue;
+        }
+    }
+
+    /**
+     * @return tasks waiting in all session queues
+     */
+    public int getQueueDepth() {
+        return queued.get();
+    }
+
+    /**
+     * @return average queue wait of dispatched tasks in millis
+     */
+    public double getAverageWaitMillis() {
+        long count = dispatched.get();
+        return count == 0 ? 0 : waitNanos.get() / (double) count / 1000000.0;
+    }
+
+    /**
+     * @return longest queue wait of a task in millis
+     */
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1000000.0;
+    }
+
+    /**
+     * @return busy workers
+     */
+    public int getActiveWorkers() {
+        return workers.getActiveCount();
+    }
+
+    /**
+     * Queue depth per session
+     * @return Map of session to waiting tasks
+     */
+    public Map<String, Integer> sessionDepths() {
+        List<SessionQueue> snapshot;
+        synchronized (lock) {
+            snapshot = new ArrayList<>(queues.values());
+        }
+        Map<String, Integer> depths = new LinkedHashMap<>();
+        for(SessionQueue queue : snapshot) {
+            depths.put(queue.name, queue.tasks.size());
+        }
+        return depths;
+    }
+
+    /**
+     * Reset the wait and rejection counters
+     */
+    public void resetStatistics() {
+        maxQueued.set(queued.get());
+        dispatched.set(0);
+        waitNanos.set(0);
+        maxWaitNanos.set(0);
+        blocked.set(0);
+        inlineRuns.set(0);
+    }
+
+    /**
+     * Bounded task queue of a session
+     */
+    private static final class SessionQueue {
+
+        private final String name;
+
+        private final BlockingQueue<Queued> tasks;
+
+        /**Whether the queue is in the ready line, guarded by lock*/
+        private boolean ready;
+
+        SessionQueue(String name, int capacity) {
+            this.name = name;
+            this.tasks = new LinkedBlockingQueue<>(capacity);
+        }
+    }
+
+    /**
+     * Task with its enqueue time
+     */
+    private static final class Queued {
+
+        private final FutureTask<?> task;
+
+        private final long enqueued = System.nanoTime();
+
+        Queued(FutureTask<?> task) {
+            this.task = task;
+        }
+    }
+}
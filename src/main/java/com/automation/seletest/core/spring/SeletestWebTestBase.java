@@ -27,11 +27,12 @@ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package com.automation.seletest.core.spring;
 
+import java.io.File;
+
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.env.Environment;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.testng.AbstractTestNGSpringContextTests;
 import org.testng.ITestContext;
@@ -45,9 +46,15 @@ import org.testng.annotations.BeforeSuite;
 import org.testng.annotations.BeforeTest;
 import org.testng.annotations.Listeners;
 
+import com.automation.seletest.core.jmx.MonitorMetricsRegistry;
 import com.automation.seletest.core.listeners.InitListener;
 import com.automation.seletest.core.selenium.configuration.ConfigurationDriver;
 import com.automation.seletest.core.selenium.threads.SessionContext;
+import com.automation.seletest.core.services.data.DataShard;
+import com.automation.seletest.core.services.retry.RetryEngine;
+import com.automation.seletest.core.services.screenshots.ScreenshotService;
+import com.automation.seletest.core.services.utilities.EventLog;
+import com.automation.seletest.core.services.utilities.MailNotificationQueue;
 
 /**
  * This class serves as the Base Class for Web Test Preparation
@@ -65,6 +72,15 @@ public class SeletestWebTestBase extends AbstractTestNGSpringContextTests {
     /**Μessage initialize new session*/
     private static final String INITIALIZE_SESSION="Event for initializing Session occured at: {} !!!";
 
+    /**Report with execution metrics of @Monitor methods*/
+    private static final String METRICS_REPORT="/html/Logs/monitor-metrics.txt";
+
+    /**Directory of the data shard summaries*/
+    private static final String SHARD_SUMMARIES="/html/Logs/shards";
+
+    /**Max time (millis) to wait for pending screenshots at the end of suite*/
+    private static final long SCREENSHOTS_FLUSH_TIMEOUT=30000;
+
     /**Message for exception during application context load*/
     private static final String ERROR_IOC="Error during initializing spring container ";
 
@@ -79,7 +95,7 @@ public class SeletestWebTestBase extends AbstractTestNGSpringContextTests {
     @BeforeSuite(alwaysRun = true)
     protected void suiteSettings(ITestContext ctx) throws Exception {
         log.debug("Suite : "+ctx.getCurrentXmlTest().getSuite().getName()+" started at: {}",ctx.getStartDate());
-        applicationContext.getBean(ThreadPoolTaskExecutor.class).getThreadPoolExecutor().allowCoreThreadTimeOut(true);
+        applicationContext.getBean(RetryEngine.class).reset();
  
     }
 
@@ -133,8 +149,13 @@ public class SeletestWebTestBase extends AbstractTestNGSpringContextTests {
     }
 
     @AfterSuite(alwaysRun = true)
-    protected void cleanSuite() throws Exception {
+    protected void cleanSuite(ITestContext ctx) throws Exception {
           SessionContext.cleanSessionsFromStack();
+          applicationContext.getBean(ScreenshotService.class).flush(SCREENSHOTS_FLUSH_TIMEOUT);
+          applicationContext.getBean(EventLog.class).close();
+          applicationContext.getBean(MailNotificationQueue.class).flush();
+          applicationContext.getBean(MonitorMetricsRegistry.class).dump(new File(new File(ctx.getSuite().getOutputDirectory()).getParent(), METRICS_REPORT));
+          DataShard.of(ctx).writeSummary(new File(new File(ctx.getSuite().getOutputDirectory()).getParent(), SHARD_SUMMARIES), ctx);
     }
 
 
@@ -27,6 +27,7 @@ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.automation.seletest.core.testNG;
 
 import java.lang.reflect.Method;
+import java.util.Iterator;
 import java.util.Map;
 
 import javax.annotation.PostConstruct;
@@ -36,6 +37,7 @@ import org.springframework.stereotype.Component;
 import org.testng.ITestContext;
 import org.testng.annotations.DataProvider;
 
+import com.automation.seletest.core.services.data.DataShard;
 import com.automation.seletest.core.services.utilities.FilesUtils;
 import com.automation.seletest.core.spring.ApplicationContextProvider;
 
@@ -70,22 +72,47 @@ public class DataSources {
     /**
      * Generic DataProvider that returns data from a Map
      * @param method
+     * @param context rows are split by the shardCount/shardIndex parameters
      * @return Object[][] with the Map that contains properties
      * @throws Exception
      */
     @DataProvider(name = "GenericDataProvider")
-    public static Object[][] getDataProvider(final Method method) throws Exception {
+    public static Object[][] getDataProvider(final Method method, ITestContext context) throws Exception {
         Map<String, String> map = ApplicationContextProvider.getApplicationContext().getBean(FilesUtils.class).readData(method);
-        return new Object[][] { { map } };
+        return DataShard.of(context).filter(method, new Object[][] { { map } });
+    }
+
+    /**
+     * DataProvider that streams csv rows lazily, one invocation per row
+     * @param method
+     * @param context rows are split by the shardCount/shardIndex parameters
+     * @return Iterator<Object[]> with a Map of header to value per row
+     * @throws Exception
+     */
+    @DataProvider(name = "CSVDataProvider",parallel=true)
+    public static Iterator<Object[]> getCsvDataProvider(final Method method, ITestContext context) throws Exception {
+        return DataShard.of(context).filter(method, ApplicationContextProvider.getApplicationContext().getBean(FilesUtils.class).streamData(method));
+    }
+
+    /**
+     * DataProvider that streams xlsx rows lazily, one invocation per row
+     * @param method
+     * @param context rows are split by the shardCount/shardIndex parameters
+     * @return Iterator<Object[]> with a Map of header to value per row
+     * @throws Exception
+     */
+    @DataProvider(name = "XLSXDataProvider",parallel=true)
+    public static Iterator<Object[]> getXlsxDataProvider(final Method method, ITestContext context) throws Exception {
+        return DataShard.of(context).filter(method, ApplicationContextProvider.getApplicationContext().getBean(FilesUtils.class).streamData(method));
     }
 
     @DataProvider(name = "ExcelDataProvider",parallel=true)
-    public static Object[][] createData(ITestContext context) throws Exception{
+    public static Object[][] createData(ITestContext context, Method method) throws Exception{
         String testParam = context.getCurrentXmlTest().getParameter(EXCEL);
         String testParamSheet = context.getCurrentXmlTest().getParameter(EXCELSHEET);
         String testParamTable = context.getCurrentXmlTest().getParameter(EXCELTABLE);
         Object[][] retObjArr=file.getTableArray(testParam,testParamSheet,testParamTable);
-        return(retObjArr);
+        return(DataShard.of(context).filter(method, retObjArr));
     }
 
 
@@ -27,6 +27,9 @@ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.automation.seletest.core.testNG.assertions;
 
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
 import java.util.concurrent.Future;
 
 import lombok.Getter;
@@ -41,10 +44,17 @@ import org.springframework.scheduling.annotation.AsyncResult;
 import org.springframework.stereotype.Service;
 import org.testng.asserts.Assertion;
 
+import com.automation.seletest.core.selenium.threads.ExecutionContext;
 import com.automation.seletest.core.selenium.threads.SessionContext;
+import com.automation.seletest.core.selenium.threads.SessionProperties;
 import com.automation.seletest.core.services.annotations.SeleniumTest.AssertionType;
 import com.automation.seletest.core.services.annotations.VerifyLog;
 import com.automation.seletest.core.services.factories.StrategyFactory;
+import com.automation.seletest.core.services.screenshots.ScreenshotService;
+import com.automation.seletest.core.services.screenshots.VisualComparator;
+import com.automation.seletest.core.services.screenshots.VisualDiff;
+import com.automation.seletest.core.services.utilities.FilesUtils;
+import com.automation.seletest.core.testNG.assertions.DomSnapshot.ElementState;
 
 /**
  * This class represents the Assertion API
@@ -68,6 +78,18 @@ public class Assert<T extends Assertion> {
     @Autowired
     StrategyFactory<?> strategy;
 
+    /**Visual comparison against baselines*/
+    @Autowired
+    VisualComparator visual;
+
+    /**Screenshot writer*/
+    @Autowired
+    ScreenshotService screenshots;
+
+    /**FileUtils*/
+    @Autowired
+    FilesUtils fileService;
+
     /**
      * Specify the type of assertion (Hard or Soft) for this test
      * @param assertionType
@@ -82,6 +104,38 @@ public class Assert<T extends Assertion> {
     }
 
 
+    /**
+     * Capture the state of the elements of the locators with one script execution;
+     * verifications of these locators evaluate the snapshot until it is released
+     * @param locators String locators used by the following verifications
+     * @return Assert
+     */
+    public Assert snapshot(String... locators) {
+        ExecutionContext.current().getSession().setSnapshot(DomSnapshot.capture(strategy.getControllerStrategy(SessionContext.session().getControllerStrategy()), locators));
+        return this;
+    }
+
+    /**
+     * Release the DOM snapshot, verifications query the browser again
+     * @return Assert
+     */
+    public Assert releaseSnapshot() {
+        ExecutionContext.current().getSession().setSnapshot(null);
+        return this;
+    }
+
+    /**
+     * Captured state of a locator, the session is resolved from the execution context
+     * so verifications running on executor threads see the snapshot of their test
+     * @param locator
+     * @return ElementState or null when there is no snapshot of the locator
+     */
+    private ElementState snapshotOf(Object locator) {
+        SessionProperties<?> session = ExecutionContext.current().getSession();
+        DomSnapshot snapshot = session != null ? session.getSnapshot() : null;
+        return snapshot != null ? snapshot.get(locator) : null;
+    }
+
     /**
      * Decide test status on Soft failures
      */
@@ -99,7 +153,8 @@ public class Assert<T extends Assertion> {
     @Async
     @VerifyLog(messageFail = "notfound" , messagePass = "found", message = "elementLocator", screenShot = false)
     public Future<Boolean> elementPresent(String locator) {
-        assertion.assertTrue(strategy.getControllerStrategy(SessionContext.session().getControllerStrategy()).isElementPresent(locator),env.getProperty("elementLocator")+" "+locator+" "+env.getProperty("found"));
+        ElementState state = snapshotOf(locator);
+        assertion.assertTrue(state != null ? state.isPresent() : strategy.getControllerStrategy(SessionContext.session().getControllerStrategy()).isElementPresent(locator),env.getProperty("elementLocator")+" "+locator+" "+env.getProperty("found"));
         return new AsyncResult<>(true);
     }
 
@@ -112,7 +167,8 @@ public class Assert<T extends Assertion> {
     @Async
     @VerifyLog(messageFail = "notfoundVisible" , messagePass = "foundVisible", message = "elementLocator", screenShot = false)
     public Future<Boolean> elementVisible(String locator) {
-        assertion.assertTrue(strategy.getControllerStrategy(SessionContext.session().getControllerStrategy()).isWebElementVisible(locator),env.getProperty("elementLocator")+" "+locator+" "+env.getProperty("foundVisible"));
+        ElementState state = snapshotOf(locator);
+        assertion.assertTrue(state != null ? state.isVisible() : strategy.getControllerStrategy(SessionContext.session().getControllerStrategy()).isWebElementVisible(locator),env.getProperty("elementLocator")+" "+locator+" "+env.getProperty("foundVisible"));
         return new AsyncResult<>(true);
     }
 
@@ -125,7 +181,8 @@ public class Assert<T extends Assertion> {
     @Async
     @VerifyLog(messageFail = "notfoundwithText" , messagePass = "foundwithText", message = "elementLocator", screenShot = true, highlight=true)
     public Future<Boolean> textPresentinElement(Object locator, String text) {
-        assertion.assertTrue(strategy.getControllerStrategy(SessionContext.session().getControllerStrategy()).isTextPresentinElement(locator, text),env.getProperty("elementLocator")+" "+locator+" "+env.getProperty("foundwithText") + " "+text);
+        ElementState state = snapshotOf(locator);
+        assertion.assertTrue(state != null ? state.getText() != null && state.getText().contains(text) : strategy.getControllerStrategy(SessionContext.session().getControllerStrategy()).isTextPresentinElement(locator, text),env.getProperty("elementLocator")+" "+locator+" "+env.getProperty("foundwithText") + " "+text);
         return new AsyncResult<>(true);
     }
 
@@ -138,7 +195,8 @@ public class Assert<T extends Assertion> {
     @Async
     @VerifyLog(messageFail = "notfoundwithText" , messagePass = "foundwithText", message = "elementLocator", screenShot = true, highlight=true)
     public Future<Boolean> textContainedinElement(Object locator, String text) {
-        assertion.assertTrue(strategy.getControllerStrategy(SessionContext.session().getControllerStrategy()).getText(locator).toLowerCase().contains(text),env.getProperty("elementLocator")+" "+locator+" "+env.getProperty("foundwithText") + " "+text);
+        ElementState state = snapshotOf(locator);
+        assertion.assertTrue((state != null ? String.valueOf(state.getText()) : strategy.getControllerStrategy(SessionContext.session().getControllerStrategy()).getText(locator)).toLowerCase().contains(text),env.getProperty("elementLocator")+" "+locator+" "+env.getProperty("foundwithText") + " "+text);
         return new AsyncResult<>(true);
     }
 
@@ -151,7 +209,8 @@ public class Assert<T extends Assertion> {
     @Async
     @VerifyLog(messageFail = "notfoundwithText" , messagePass = "foundwithText", message = "elementLocator", screenShot = true, highlight=true)
     public Future<Boolean> textPresentValueAttribute(Object locator, String text) {
-        assertion.assertTrue(strategy.getWaitStrategy(SessionContext.session().getWaitStrategy()).waitForTextPresentinValue(locator, text),env.getProperty("elementLocator")+" "+locator+" "+env.getProperty("foundwithText") + " "+text);
+        ElementState state = snapshotOf(locator);
+        assertion.assertTrue(state != null ? state.getValue() != null && state.getValue().contains(text) : strategy.getWaitStrategy(SessionContext.session().getWaitStrategy()).waitForTextPresentinValue(locator, text),env.getProperty("elementLocator")+" "+locator+" "+env.getProperty("foundwithText") + " "+text);
         return new AsyncResult<>(true);
     }
 
@@ -164,7 +223,8 @@ public class Assert<T extends Assertion> {
     @Async
     @VerifyLog(messageFail = "notfoundwithText" , messagePass = "foundwithText", message = "elementLocator", screenShot = true, highlight=true)
     public Future<Boolean> textOfSelectedOption(Object locator, String text) {
-        assertion.assertEquals(strategy.getControllerStrategy(SessionContext.session().getControllerStrategy()).getFirstSelectedOptionText(locator),text,env.getProperty("elementLocator")+" "+locator+" "+env.getProperty("foundwithText") + " "+text);
+        ElementState state = snapshotOf(locator);
+        assertion.assertEquals(state != null ? state.getSelected() : strategy.getControllerStrategy(SessionContext.session().getControllerStrategy()).getFirstSelectedOptionText(locator),text,env.getProperty("elementLocator")+" "+locator+" "+env.getProperty("foundwithText") + " "+text);
         return new AsyncResult<>(true);
     }
 
@@ -177,7 +237,8 @@ public class Assert<T extends Assertion> {
     @Async
     @VerifyLog(messageFail = "notfoundEditable" , messagePass = "foundEditable", message = "elementLocator", screenShot = true, highlight=true)
     public Future<Boolean> fieldEditable(Object locator) {
-        assertion.assertTrue(strategy.getControllerStrategy(SessionContext.session().getControllerStrategy()).isFieldEditable(locator),env.getProperty("elementLocator")+" "+locator+" "+env.getProperty("foundEditable"));
+        ElementState state = snapshotOf(locator);
+        assertion.assertTrue(state != null ? state.isPresent() && state.isEnabled() : strategy.getControllerStrategy(SessionContext.session().getControllerStrategy()).isFieldEditable(locator),env.getProperty("elementLocator")+" "+locator+" "+env.getProperty("foundEditable"));
         return new AsyncResult<>(true);
     }
 
@@ -189,7 +250,8 @@ public class Assert<T extends Assertion> {
     @Async
     @VerifyLog(messageFail = "foundEditable" , messagePass = "notfoundEditable", message = "elementLocator", screenShot = true, highlight=true)
     public Future<Boolean> fieldNotEditable(Object locator) {
-        assertion.assertTrue(strategy.getControllerStrategy(SessionContext.session().getControllerStrategy()).isFieldNotEditable(locator),env.getProperty("elementLocator")+" "+locator+" "+env.getProperty("notFoundEditable"));
+        ElementState state = snapshotOf(locator);
+        assertion.assertTrue(state != null ? state.isPresent() && !state.isEnabled() : strategy.getControllerStrategy(SessionContext.session().getControllerStrategy()).isFieldNotEditable(locator),env.getProperty("elementLocator")+" "+locator+" "+env.getProperty("notFoundEditable"));
         return new AsyncResult<>(true);
     }
 
@@ -201,7 +263,8 @@ public class Assert<T extends Assertion> {
     @Async
     @VerifyLog(messageFail = "notfoundClickable" , messagePass = "foundClickable", message = "elementLocator", screenShot = true, highlight=true)
     public Future<Boolean> elementClickable(Object locator) {
-        assertion.assertTrue(strategy.getControllerStrategy(SessionContext.session().getControllerStrategy()).isElementClickable(locator),env.getProperty("elementLocator")+" "+locator+" "+env.getProperty("foundClickable"));
+        ElementState state = snapshotOf(locator);
+        assertion.assertTrue(state != null ? state.isClickable() : strategy.getControllerStrategy(SessionContext.session().getControllerStrategy()).isElementClickable(locator),env.getProperty("elementLocator")+" "+locator+" "+env.getProperty("foundClickable"));
         return new AsyncResult<>(true);
     }
 
@@ -213,7 +276,8 @@ public class Assert<T extends Assertion> {
     @Async
     @VerifyLog(messageFail = "foundClickable" , messagePass = "notfoundClickable", message = "elementLocator", screenShot = true, highlight=true)
     public Future<Boolean> elementNotClickable(Object locator) {
-        assertion.assertTrue(strategy.getControllerStrategy(SessionContext.session().getControllerStrategy()).isElementNotClickable(locator),env.getProperty("elementLocator")+" "+locator+" "+env.getProperty("notFoundClickable"));
+        ElementState state = snapshotOf(locator);
+        assertion.assertTrue(state != null ? !state.isClickable() : strategy.getControllerStrategy(SessionContext.session().getControllerStrategy()).isElementNotClickable(locator),env.getProperty("elementLocator")+" "+locator+" "+env.getProperty("notFoundClickable"));
         return new AsyncResult<>(true);
     }
 
@@ -225,7 +289,27 @@ public class Assert<T extends Assertion> {
     @Async
     @VerifyLog(messageFail = "foundVisible" , messagePass = "notfoundVisible", message = "elementLocator", screenShot = true)
     public Future<Boolean> elementNotVisible(String locator) {
-        assertion.assertTrue(strategy.getControllerStrategy(SessionContext.getSession().getControllerStrategy()).isElementNotVisible(locator),env.getProperty("elementLocator")+" "+locator+" "+env.getProperty("notfoundVisible"));
+        ElementState state = snapshotOf(locator);
+        assertion.assertTrue(state != null ? !state.isVisible() : strategy.getControllerStrategy(SessionContext.getSession().getControllerStrategy()).isElementNotVisible(locator),env.getProperty("elementLocator")+" "+locator+" "+env.getProperty("notfoundVisible"));
+        return new AsyncResult<>(true);
+    }
+
+    /**
+     * Verify that screenshot of element or page matches its baseline
+     * @param locator Object locator of element, null for the whole page
+     * @param ignore regions excluded from comparison
+     * @return AsyncResult
+     * @throws IOException
+     */
+    @Async
+    @VerifyLog(messageFail = "notVisualMatch" , messagePass = "visualMatch", message = "visualLocator", screenShot = false)
+    public Future<Boolean> visualMatch(Object locator, Rectangle... ignore) throws IOException {
+        BufferedImage actual = strategy.getControllerStrategy(SessionContext.session().getControllerStrategy()).captureScreenShot(locator);
+        VisualDiff diff = visual.compare(visual.baselineName(ExecutionContext.current().getTest(), ExecutionContext.current().getParameters(), locator), actual, ignore);
+        if(!diff.isMatch()) {
+            fileService.reportScreenshot(screenshots.store(visual.diffImage(actual, diff)).getFile());
+        }
+        assertion.assertTrue(diff.isMatch(), env.getProperty("visualLocator")+" "+locator+" "+env.getProperty("visualMatch")+" ["+diff+"]");
         return new AsyncResult<>(true);
     }
 
@@ -238,7 +322,8 @@ public class Assert<T extends Assertion> {
     @Async
     @VerifyLog(messageFail = "notfound" , messagePass = "found", message = "numberElements", screenShot = true, highlight=true)
     public Future<Boolean> elementsMatching(String locator, int expectedElements) {
-        assertion.assertEquals(strategy.getControllerStrategy(SessionContext.session().getControllerStrategy()).elementsMatching(locator),expectedElements,"Found "+String.valueOf(expectedElements)+" elements matching locator: "+locator);
+        ElementState state = snapshotOf(locator);
+        assertion.assertEquals(state != null ? state.getVisibleCount() : strategy.getControllerStrategy(SessionContext.session().getControllerStrategy()).elementsMatching(locator),expectedElements,"Found "+String.valueOf(expectedElements)+" elements matching locator: "+locator);
         return new AsyncResult<>(true);
     }
 
@@ -0,0 +1,172 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.testNG.assertions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Getter;
+
+import com.automation.seletest.core.selenium.webAPI.WebController;
+import com.automation.seletest.core.selenium.webAPI.elements.Locators;
+
+/**
+ * State of a set of elements captured with a single script execution.
+ * While a snapshot is set on the session, the {@link Assert} verifications of its locators
+ * are evaluated against the captured state instead of querying the browser,
+ * so many checks on a static page cost one round trip.
+ * Locators are resolved by the browser in the same script; mobile locators are not supported.
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+public class DomSnapshot {
+
+    /**Resolves each [type, expression] pair and serializes the state of the matched elements*/
+    private static final String SCRIPT =
+        "var specs = arguments[0], out = [];"
+        + "function find(t, x) {"
+        + " var r = [], i, n;"
+        + " if (t == 'XPATH' || t == 'XPATHEXPR') { n = document.evaluate(x, document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null); for (i = 0; i < n.snapshotLength; i++) r.push(n.snapshotItem(i)); }"
+        + " else if (t == 'CSS') { r = Array.prototype.slice.call(document.querySelectorAll(x)); }"
+        + " else if (t == 'ID') { n = document.getElementById(x); if (n) r.push(n); }"
+        + " else if (t == 'NAME') { r = Array.prototype.slice.call(document.getElementsByName(x)); }"
+        + " else if (t == 'TAGNAME') { r = Array.prototype.slice.call(document.getElementsByTagName(x)); }"
+        + " else if (t == 'CLASSNAME') { r = Array.prototype.slice.call(document.getElementsByClassName(x)); }"
+        + " else if (t == 'LINK') { n = document.getElementsByTagName('a'); for (i = 0; i < n.length; i++) if ((n[i].innerText || n[i].textContent || '').trim() == x) r.push(n[i]); }"
+        + " else if (t == 'JQUERY' && window.jQuery) { r = window.jQuery(x).get(); }"
+        + " return r;"
+        + "}"
+        + "function visible(e) {"
+        + " var b = e.getBoundingClientRect(), s = window.getComputedStyle(e);"
+        + " return b.width > 0 && b.height > 0 && s.visibility != 'hidden' && s.display != 'none' && parseFloat(s.opacity) !== 0;"
+        + "}"
+        + "for (var k = 0; k < specs.length; k++) {"
+        + " var els = find(specs[k][0], specs[k][1]), e = els[0], shown = 0;"
+        + " for (var j = 0; j < els.length; j++) if (visible(els[j])) shown++;"
+        + " out.push({count: els.length, visibleCount: shown,"
+        + "  visible: !!e && visible(e),"
+        + "  text: e ? (e.innerText || e.textContent || '').trim() : null,"
+        + "  value: e ? ('value' in e ? String(e.value) : e.getAttribute('value')) : null,"
+        + "  enabled: !!e && !e.disabled,"
+        + "  selected: e && e.tagName == 'SELECT' && e.selectedIndex >= 0 ? (e.options[e.selectedIndex].innerText || e.options[e.selectedIndex].text || '').trim() : null});"
+        + "}"
+        + "return out;";
+
+    /**Captured state per locator*/
+    private final Map<String, ElementState> elements;
+
+    private DomSnapshot(Map<String, ElementState> elements) {
+        this.elements = Collections.unmodifiableMap(elements);
+    }
+
+    /**
+     * Capture the state of the elements of the locators
+     * @param controller the controller of the session
+     * @param locators String locators to capture
+     * @return DomSnapshot
+     */
+    @SuppressWarnings("unchecked")
+    public static DomSnapshot capture(WebController<?> controller, String... locators) {
+        List<List<String>> specs = new ArrayList<>();
+        List<String> captured = new ArrayList<>();
+        for(String locator : locators) {
+            Locators type = Locators.findByLocator(locator);
+            if(type == null || type == Locators.ANDROIDUIAUTOMATOR || type == Locators.IOSUIAUTOMATOR || type == Locators.ACCESSIBILITYID) {
+                continue;
+            }
+            specs.add(Arrays.asList(type.name(), type == Locators.XPATHEXPR ? locator : locator.substring(locator.indexOf('=') + 1)));
+            captured.add(locator);
+        }
+        Object result = controller.executeJS(SCRIPT, specs);
+        if(!(result instanceof List)) {
+            throw new UnsupportedOperationException("DOM snapshots need a WebDriver session");
+        }
+        List<Map<String, Object>> states = (List<Map<String, Object>>) result;
+        Map<String, ElementState> elements = new HashMap<>();
+        for(int i = 0; i < captured.size(); i++) {
+            elements.put(captured.get(i), new ElementState(states.get(i)));
+        }
+        return new DomSnapshot(elements);
+    }
+
+    /**
+     * State of a captured locator
+     * @param locator
+     * @return ElementState or null if the locator was not captured
+     */
+    public ElementState get(Object locator) {
+        return locator instanceof String ? elements.get(locator) : null;
+    }
+
+    /**
+     * Captured state of the first element matching a locator
+     */
+    @Getter
+    public static class ElementState {
+
+        /**Number of matching elements*/
+        private final int count;
+
+        /**Number of visible matching elements*/
+        private final int visibleCount;
+
+        private final boolean visible;
+
+        private final boolean enabled;
+
+        /**Rendered text*/
+        private final String text;
+
+        /**Value property*/
+        private final String value;
+
+        /**Text of the selected option for select elements*/
+        private final String selected;
+
+        ElementState(Map<String, Object> state) {
+            count = ((Number) state.get("count")).intValue();
+            visibleCount = ((Number) state.get("visibleCount")).intValue();
+            visible = Boolean.TRUE.equals(state.get("visible"));
+            enabled = Boolean.TRUE.equals(state.get("enabled"));
+            text = (String) state.get("text");
+            value = (String) state.get("value");
+            selected = (String) state.get("selected");
+        }
+
+        public boolean isPresent() {
+            return count > 0;
+        }
+
+        public boolean isClickable() {
+            return visible && enabled;
+        }
+    }
+}
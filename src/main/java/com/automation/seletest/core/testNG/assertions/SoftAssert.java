@@ -26,7 +26,8 @@ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 package com.automation.seletest.core.testNG.assertions;
 
-import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Configurable;
@@ -34,12 +35,13 @@ import org.testng.ITestResult;
 import org.testng.Reporter;
 import org.testng.asserts.Assertion;
 import org.testng.asserts.IAssert;
-import org.testng.collections.Maps;
 
 import com.automation.seletest.core.services.utilities.LogUtils;
 
 /**
- * This class used for executing soft assertions
+ * This class used for executing soft assertions.
+ * Every session has its own instance; failures of async verifications running on executor threads
+ * are appended to a lock-free queue and drained by {@link #assertAll()} of the same session.
  * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
  *
  */
@@ -49,8 +51,8 @@ public class SoftAssert extends Assertion {
     @Autowired
     LogUtils log;
 
-    /** LinkedHashMap to preserve the order*/
-    private static final Map<AssertionError, IAssert> m_errors = Maps.newLinkedHashMap();
+    /** Failures of this session in the order they occurred*/
+    private final Queue<AssertionError> m_errors = new ConcurrentLinkedQueue<>();
 
     @Override
     public void executeAssert(IAssert a) {
@@ -58,31 +60,32 @@ public class SoftAssert extends Assertion {
             a.doAssert();
             log.info("[EXPECTED]:"+a.getExpected()+" [ACTUAL]:"+ a.getActual()+"***** ----> VERIFICATION: "+a.getMessage(),"color:green; margin-left:20px;");
         } catch(AssertionError ex) {
-            log.verificationError("*****[EXPECTED]:"+a.getExpected()+" [ACTUAL]:"+ a.getActual()+"***** ----> VERIFICATION: "+a.getMessage()+ "------StackTrace:\\n"+findLineExceptionOccured(ex));
+            log.verificationError("*****[EXPECTED]:"+a.getExpected()+" [ACTUAL]:"+ a.getActual()+"***** ----> VERIFICATION: "+a.getMessage());
             onAssertFailure(a, ex);
-            m_errors.put(ex, a);
+            m_errors.offer(ex);
         }
     }
 
     /**
-     * Assert failures after test execution
+     * Assert failures of this session after test execution
      */
     public void assertAll() {
-        if (! m_errors.isEmpty()) {
+        AssertionError error = m_errors.poll();
+        if (error != null) {
             StringBuilder sb = new StringBuilder("The following asserts failed:\n");
             boolean first = true;
-            for (Map.Entry<AssertionError, IAssert> ae : m_errors.entrySet()) {
+            for (; error != null; error = m_errors.poll()) {
                 if (first) {
                     first = false;
                 } else {
                     sb.append(", ");
                 }
-                sb.append(ae.getKey());
+                sb.append(error).append("------StackTrace:\\n").append(findLineExceptionOccured(error));
             }
+            log.verificationError(sb.toString());
             //set the test as failed
             Reporter.getCurrentTestResult().setStatus(ITestResult.FAILURE);
             org.testng.Reporter.setCurrentTestResult(Reporter.getCurrentTestResult());
-            m_errors.clear();
         }
     }
 
@@ -0,0 +1,224 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.actions;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of coalescing, exception propagation and document generations of SingleFlight
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+public class SingleFlightTest {
+
+    private static final String OPERATION = "waitForElementVisibility(String)";
+
+    private static final long TIMEOUT = 5000;
+
+    private SingleFlight singleFlight;
+
+    private ExecutorService callers;
+
+    private AtomicInteger evaluations;
+
+    private CountDownLatch started;
+
+    private CountDownLatch release;
+
+    @BeforeMethod
+    public void setUp() {
+        singleFlight = new SingleFlight();
+        callers = Executors.newCachedThreadPool();
+        evaluations = new AtomicInteger();
+        started = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        release.countDown();
+        callers.shutdownNow();
+    }
+
+    @Test
+    public void identicalCallsInFlightShareOneEvaluation() throws Exception {
+        Future<Object> leader = execute("#login", blocking("visible"));
+        assertTrue(started.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        Future<Object> follower = execute("#login", blocking("not evaluated"));
+        awaitShared(1);
+        release.countDown();
+
+        assertEquals(leader.get(TIMEOUT, TimeUnit.MILLISECONDS), "visible");
+        assertEquals(follower.get(TIMEOUT, TimeUnit.MILLISECONDS), "visible");
+        assertEquals(evaluations.get(), 1);
+        assertEquals(singleFlight.getExecuted().get(), 1);
+    }
+
+    @Test
+    public void exceptionIsPropagatedToJoinedCallers() throws Exception {
+        final IOException failure = new IOException("element not found");
+        Future<Object> leader = execute("#login", new SingleFlight.Call() {
+            @Override
+            public Object call() throws Throwable {
+                evaluations.incrementAndGet();
+                started.countDown();
+                release.await();
+                throw failure;
+            }
+        });
+        assertTrue(started.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        Future<Object> follower = execute("#login", blocking("not evaluated"));
+        awaitShared(1);
+        release.countDown();
+
+        assertSame(cause(leader), failure);
+        assertSame(cause(follower), failure);
+        assertEquals(evaluations.get(), 1);
+    }
+
+    @Test
+    public void throwableIsNotWrapped() {
+        final Throwable failure = new Throwable("not an exception");
+        try {
+            singleFlight.execute(OPERATION, new Object[] {"#login"}, new SingleFlight.Call() {
+                @Override
+                public Object call() throws Throwable {
+                    throw failure;
+                }
+            });
+            fail("Throwable of the call expected");
+        } catch (Throwable t) {
+            assertSame(t, failure);
+        }
+    }
+
+    @Test
+    public void callsAfterNewDocumentAreNotCoalesced() throws Throwable {
+        Future<Object> before = execute("#login", blocking("old page"));
+        assertTrue(started.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        singleFlight.newDocument();
+
+        assertEquals(singleFlight.execute(OPERATION, new Object[] {"#login"}, value("new page")), "new page");
+        release.countDown();
+        assertEquals(before.get(TIMEOUT, TimeUnit.MILLISECONDS), "old page");
+        assertEquals(singleFlight.getShared().get(), 0);
+        assertEquals(singleFlight.getExecuted().get(), 2);
+    }
+
+    @Test
+    public void callsWithDifferentArgumentsAreNotCoalesced() throws Throwable {
+        Future<Object> first = execute("#login", blocking("login"));
+        assertTrue(started.await(TIMEOUT, TimeUnit.MILLISECONDS));
+
+        assertEquals(singleFlight.execute(OPERATION, new Object[] {"#logout"}, value("logout")), "logout");
+        release.countDown();
+        assertEquals(first.get(TIMEOUT, TimeUnit.MILLISECONDS), "login");
+        assertEquals(singleFlight.getShared().get(), 0);
+    }
+
+    @Test
+    public void completedCallsAreNotReused() throws Throwable {
+        assertEquals(singleFlight.execute(OPERATION, new Object[] {"#login"}, value("first")), "first");
+        assertEquals(singleFlight.execute(OPERATION, new Object[] {"#login"}, value("second")), "second");
+        assertEquals(evaluations.get(), 2);
+        assertEquals(singleFlight.getShared().get(), 0);
+    }
+
+    private Future<Object> execute(final String locator, final SingleFlight.Call call) {
+        return callers.submit(new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                try {
+                    return singleFlight.execute(OPERATION, new Object[] {locator}, call);
+                } catch (Exception e) {
+                    throw e;
+                } catch (Throwable t) {
+                    throw new ExecutionException(t);
+                }
+            }
+        });
+    }
+
+    private SingleFlight.Call blocking(final Object result) {
+        return new SingleFlight.Call() {
+            @Override
+            public Object call() throws Throwable {
+                evaluations.incrementAndGet();
+                started.countDown();
+                assertTrue(release.await(TIMEOUT, TimeUnit.MILLISECONDS));
+                return result;
+            }
+        };
+    }
+
+    private SingleFlight.Call value(final Object result) {
+        return new SingleFlight.Call() {
+            @Override
+            public Object call() {
+                evaluations.incrementAndGet();
+                return result;
+            }
+        };
+    }
+
+    private void awaitShared(long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while(singleFlight.getShared().get() < expected) {
+            if(System.currentTimeMillis() > deadline) {
+                fail("Caller did not join the call in flight");
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    private Throwable cause(Future<Object> caller) throws Exception {
+        try {
+            caller.get(TIMEOUT, TimeUnit.MILLISECONDS);
+            fail("Exception of the call expected");
+            return null;
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+    }
+}
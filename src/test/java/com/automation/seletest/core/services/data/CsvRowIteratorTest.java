@@ -0,0 +1,123 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.data;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the lazy csv data source
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+public class CsvRowIteratorTest {
+
+    @Test
+    public void rowsAreMappedToHeader() throws IOException {
+        try (CsvRowIterator rows = new CsvRowIterator(csv(" user , password\nadmin,secret\nguest,\"pass, word\"\n"))) {
+            assertEquals(rows.getHeader(), new String[] {"user", "password"});
+            assertEquals(row(rows).get("user"), "admin");
+            Map<String, String> second = row(rows);
+            assertEquals(second.get("user"), "guest");
+            assertEquals(second.get("password"), "pass, word");
+            assertFalse(rows.hasNext());
+            assertEquals(rows.getRows(), 2);
+        }
+    }
+
+    @Test
+    public void missingValuesAreEmptyAndBlankLinesSkipped() throws IOException {
+        try (CsvRowIterator rows = new CsvRowIterator(csv("user,password,role\n\nadmin\n\n"))) {
+            Map<String, String> row = row(rows);
+            assertEquals(row.size(), 3);
+            assertEquals(row.get("user"), "admin");
+            assertEquals(row.get("password"), "");
+            assertEquals(row.get("role"), "");
+            assertFalse(rows.hasNext());
+        }
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void rowsAreReadOnly() throws IOException {
+        try (CsvRowIterator rows = new CsvRowIterator(csv("user\nadmin\n"))) {
+            row(rows).put("user", "guest");
+        }
+    }
+
+    @Test(expectedExceptions = NoSuchElementException.class)
+    public void nextAfterLastRowFails() throws IOException {
+        try (CsvRowIterator rows = new CsvRowIterator(csv("user\nadmin\n"))) {
+            rows.next();
+            assertFalse(rows.hasNext());
+            rows.next();
+        }
+    }
+
+    @Test
+    public void headerOnlyHasNoRows() throws IOException {
+        try (CsvRowIterator rows = new CsvRowIterator(csv("user,password\n"))) {
+            assertFalse(rows.hasNext());
+            assertEquals(rows.getRows(), 0);
+        }
+    }
+
+    @Test(expectedExceptions = SkipException.class)
+    public void emptyFileSkipsTest() throws IOException {
+        new CsvRowIterator(csv(""));
+    }
+
+    @Test(expectedExceptions = SkipException.class)
+    public void missingFileSkipsTest() throws IOException {
+        File missing = new File(csv("user\n"));
+        assertTrue(missing.delete());
+        new CsvRowIterator(missing.getPath());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, String> row(CsvRowIterator rows) {
+        assertTrue(rows.hasNext());
+        return (Map<String, String>) rows.next()[0];
+    }
+
+    private String csv(String content) throws IOException {
+        File file = File.createTempFile("seletest", ".csv");
+        file.deleteOnExit();
+        FileUtils.writeStringToFile(file, content, StandardCharsets.UTF_8.name());
+        return file.getPath();
+    }
+}
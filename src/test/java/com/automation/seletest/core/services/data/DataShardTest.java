@@ -0,0 +1,181 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.data;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.testng.annotations.Test;
+
+/**
+ * Tests of row selection, stability of the row hash and merging of shard summaries
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+public class DataShardTest {
+
+    private static final int ROWS = 200;
+
+    @Test
+    public void disabledShardKeepsAllRows() throws NoSuchMethodException {
+        DataShard shard = new DataShard(1, 0);
+        Object[][] rows = rows();
+        assertFalse(shard.isEnabled());
+        assertSame(shard.filter(method(), rows), rows);
+        assertTrue(shard.accepts(method(), rows[0]));
+    }
+
+    @Test
+    public void everyRowRunsOnExactlyOneShard() throws NoSuchMethodException {
+        Object[][] rows = rows();
+        int[] selected = new int[3];
+        for(Object[] row : rows) {
+            int accepted = 0;
+            for(int index = 0; index < selected.length; index++) {
+                if(new DataShard(selected.length, index).accepts(method(), row)) {
+                    selected[index]++;
+                    accepted++;
+                }
+            }
+            assertEquals(accepted, 1, "Row " + Arrays.toString(row));
+        }
+        for(int index = 0; index < selected.length; index++) {
+            assertTrue(selected[index] > ROWS / selected.length / 2, "Shard " + index + " selected " + selected[index] + " rows");
+        }
+    }
+
+    @Test
+    public void hashIsStable() throws NoSuchMethodException {
+        Map<String, String> row = new LinkedHashMap<>();
+        row.put("user", "admin");
+        row.put("password", "secret");
+        Map<String, String> reordered = new LinkedHashMap<>();
+        reordered.put("password", "secret");
+        reordered.put("user", "admin");
+        for(int index = 0; index < 7; index++) {
+            DataShard shard = new DataShard(7, index);
+            assertEquals(shard.accepts(method(), new Object[] {reordered}), shard.accepts(method(), new Object[] {row}));
+        }
+        //FNV-1a of the method and row, the same on every JVM and platform
+        assertTrue(new DataShard(7, 2).accepts(method(), new Object[] {row}));
+        assertTrue(new DataShard(7, 3).accepts(method(), new Object[] {"admin", 42}));
+    }
+
+    @Test
+    public void iteratorSelectsSameRowsAsArray() throws NoSuchMethodException {
+        DataShard shard = new DataShard(4, 1);
+        Object[][] expected = shard.filter(method(), rows());
+        List<Object[]> selected = new ArrayList<>();
+        Iterator<Object[]> rows = shard.filter(method(), Arrays.asList(rows()).iterator());
+        while(rows.hasNext()) {
+            selected.add(rows.next());
+        }
+        assertEquals(selected.toArray(new Object[selected.size()][]), expected);
+    }
+
+    @Test
+    public void shardIsReadFromSystemProperties() {
+        System.setProperty(DataShard.SHARD_COUNT, "4");
+        System.setProperty(DataShard.SHARD_INDEX, " 2 ");
+        try {
+            DataShard shard = DataShard.of(null);
+            assertEquals(shard.getCount(), 4);
+            assertEquals(shard.getIndex(), 2);
+        } finally {
+            System.clearProperty(DataShard.SHARD_COUNT);
+            System.clearProperty(DataShard.SHARD_INDEX);
+        }
+        assertFalse(DataShard.of(null).isEnabled());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void indexOutOfCountIsRejected() {
+        new DataShard(2, 2);
+    }
+
+    @Test
+    public void summariesAreMerged() throws IOException {
+        File first = summary(0, 100, 48, 10, 1);
+        File second = summary(1, 100, 52, 12, 0);
+        Map<String, String> merged = DataShard.merge(first, second);
+        assertEquals(merged.get("shards"), "[0, 1]");
+        assertEquals(merged.get("shard.count"), "2");
+        assertEquals(merged.get("rows.Test.search.seen"), "100");
+        assertEquals(merged.get("rows.Test.search.selected"), "100");
+        assertEquals(merged.get("tests.passed"), "22");
+        assertEquals(merged.get("tests.failed"), "1");
+    }
+
+    private File summary(int index, long seen, long selected, long passed, long failed) throws IOException {
+        Properties summary = new Properties();
+        summary.setProperty("shards", String.valueOf(index));
+        summary.setProperty("shard.count", "2");
+        summary.setProperty("rows.Test.search.seen", String.valueOf(seen));
+        summary.setProperty("rows.Test.search.selected", String.valueOf(selected));
+        summary.setProperty("tests.passed", String.valueOf(passed));
+        summary.setProperty("tests.failed", String.valueOf(failed));
+        File file = File.createTempFile("shard-" + index, ".properties");
+        file.deleteOnExit();
+        try (Writer out = new FileWriter(file)) {
+            summary.store(out, null);
+        }
+        return file;
+    }
+
+    private Object[][] rows() {
+        Object[][] rows = new Object[ROWS][];
+        for(int i = 0; i < ROWS; i++) {
+            Map<String, String> row = new LinkedHashMap<>();
+            row.put("user", "user" + i);
+            row.put("password", "password" + i);
+            rows[i] = new Object[] {row};
+        }
+        return rows;
+    }
+
+    private Method method() throws NoSuchMethodException {
+        return DataShardTest.class.getDeclaredMethod("search", Map.class);
+    }
+
+    void search(Map<String, String> row) {
+    }
+}
@@ -0,0 +1,116 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.data;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.Test;
+
+/**
+ * Round trip tests: sources are compiled, opened as CompiledDataset and compared with the source parsers
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+public class DatasetCompilerTest {
+
+    @Test
+    public void csvRoundTrip() throws Exception {
+        File source = source(".csv", "user,password,city\nadmin,secret,Αθήνα\nguest,\"pass, word\"\nadmin,secret,Αθήνα\n\nviewer,,Patra\n");
+        File compiled = DatasetCompiler.compile(source);
+        assertEquals(compiled, DatasetCompiler.compiledFile(source));
+
+        CompiledDataset dataset = CompiledDataset.open(compiled);
+        try (CsvRowIterator rows = new CsvRowIterator(source.getPath())) {
+            assertEquals(dataset.getHeader(), rows.getHeader());
+            Iterator<Object[]> compiledRows = dataset.iterator();
+            while(rows.hasNext()) {
+                assertTrue(compiledRows.hasNext());
+                assertEquals(compiledRows.next()[0], rows.next()[0]);
+            }
+            assertFalse(compiledRows.hasNext());
+            assertEquals(dataset.getRows(), rows.getRows());
+        }
+        assertEquals(dataset.getRows(), 4);
+        assertEquals(dataset.values(1), new String[] {"guest", "pass, word", ""});
+    }
+
+    @Test
+    public void propertiesRoundTrip() throws Exception {
+        File source = source(".properties", "user=admin\npassword=secret\nurl=http://localhost:4444/wd/hub\n");
+        CompiledDataset dataset = CompiledDataset.open(DatasetCompiler.compile(source));
+
+        Properties properties = new Properties();
+        try (FileReader in = new FileReader(source)) {
+            properties.load(in);
+        }
+        Map<String, String> expected = new HashMap<>();
+        for(String key : properties.stringPropertyNames()) {
+            expected.put(key, properties.getProperty(key));
+        }
+        assertEquals(dataset.getRows(), 1);
+        assertEquals(dataset.row(0), expected);
+        assertEquals(dataset.getHeader(), new String[] {"password", "url", "user"});
+    }
+
+    @Test
+    public void compiledFileIsQualifiedAndFresh() throws Exception {
+        File source = source(".csv", "user\nadmin\n");
+        File compiled = DatasetCompiler.compiledFile(source, "Users sheet", "");
+        assertEquals(compiled.getName(), source.getName() + ".Users_sheet" + DatasetCompiler.EXTENSION);
+        assertFalse(DatasetCompiler.isFresh(DatasetCompiler.compiledFile(source), source));
+
+        compiled = DatasetCompiler.compile(source);
+        assertTrue(DatasetCompiler.isFresh(compiled, source));
+        assertTrue(source.setLastModified(compiled.lastModified() + 2000));
+        assertFalse(DatasetCompiler.isFresh(compiled, source));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void unsupportedSourceIsRejected() throws Exception {
+        DatasetCompiler.compile(source(".txt", "user=admin\n"));
+    }
+
+    private File source(String extension, String content) throws IOException {
+        File file = File.createTempFile("seletest", extension);
+        file.deleteOnExit();
+        DatasetCompiler.compiledFile(file).deleteOnExit();
+        FileUtils.writeStringToFile(file, content, StandardCharsets.UTF_8.name());
+        return file;
+    }
+}
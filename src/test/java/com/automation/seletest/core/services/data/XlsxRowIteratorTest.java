@@ -0,0 +1,174 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.data;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the streaming xlsx data source against minimal workbooks
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+public class XlsxRowIteratorTest {
+
+    private static final String WORKBOOK = "<workbook xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\""
+            + " xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\"><sheets>"
+            + "<sheet name=\"Users\" sheetId=\"1\" r:id=\"rId1\"/>"
+            + "<sheet name=\"Roles\" sheetId=\"2\" r:id=\"rId2\"/>"
+            + "</sheets></workbook>";
+
+    private static final String RELATIONSHIPS = "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+            + "<Relationship Id=\"rId1\" Target=\"worksheets/sheet1.xml\"/>"
+            + "<Relationship Id=\"rId2\" Target=\"/xl/worksheets/sheet2.xml\"/>"
+            + "</Relationships>";
+
+    private static final String SHARED_STRINGS = "<sst xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">"
+            + "<si><t>user</t></si>"
+            + "<si><t>password</t></si>"
+            + "<si><r><t>ad</t></r><r><t>min</t></r><rPh><t>phonetic</t></rPh></si>"
+            + "</sst>";
+
+    private static final String USERS = "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>"
+            + "<row r=\"1\"><c r=\"A1\"><v> </v></c></row>"
+            + "<row r=\"2\"><c r=\"A2\" t=\"s\"><v>0</v></c><c r=\"B2\" t=\"s\"><v>1</v></c><c r=\"C2\" t=\"inlineStr\"><is><t>active</t></is></c><c r=\"D2\" t=\"inlineStr\"><is><t>age</t></is></c></row>"
+            + "<row r=\"3\"><c r=\"A3\" t=\"s\"><v>2</v></c><c r=\"B3\" t=\"inlineStr\"><is><t>secret</t></is></c><c r=\"C3\" t=\"b\"><v>1</v></c><c r=\"D3\"><v>42</v></c></row>"
+            + "<row r=\"4\"><c r=\"B4\" t=\"inlineStr\"><is><t>guest</t></is></c><c r=\"D4\"><v>7.5</v></c></row>"
+            + "<row r=\"5\"><c r=\"A5\" t=\"inlineStr\"><is><t>viewer</t></is></c></row>"
+            + "</sheetData></worksheet>";
+
+    private static final String ROLES = "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>"
+            + "<row r=\"1\"><c r=\"A1\" t=\"inlineStr\"><is><t>role</t></is></c></row>"
+            + "<row r=\"2\"><c r=\"A2\" t=\"inlineStr\"><is><t>admin</t></is></c></row>"
+            + "</sheetData></worksheet>";
+
+    @Test
+    public void firstSheetRowsResolveSharedAndInlineStrings() throws IOException {
+        try (XlsxRowIterator rows = new XlsxRowIterator(xlsx(workbook()), "")) {
+            assertEquals(rows.getHeader(), new String[] {"user", "password", "active", "age"});
+            Map<String, String> first = row(rows);
+            assertEquals(first.get("user"), "admin");
+            assertEquals(first.get("password"), "secret");
+            assertEquals(first.get("active"), "TRUE");
+            assertEquals(first.get("age"), "42");
+        }
+    }
+
+    @Test
+    public void skippedCellsAreEmpty() throws IOException {
+        try (XlsxRowIterator rows = new XlsxRowIterator(xlsx(workbook()), "Users")) {
+            row(rows);
+            Map<String, String> gaps = row(rows);
+            assertEquals(gaps.get("user"), "");
+            assertEquals(gaps.get("password"), "guest");
+            assertEquals(gaps.get("active"), "");
+            assertEquals(gaps.get("age"), "7.5");
+            Map<String, String> trailing = row(rows);
+            assertEquals(trailing.get("user"), "viewer");
+            assertEquals(trailing.get("age"), "");
+            assertFalse(rows.hasNext());
+            assertEquals(rows.getRows(), 3);
+        }
+    }
+
+    @Test
+    public void sheetIsSelectedByName() throws IOException {
+        try (XlsxRowIterator rows = new XlsxRowIterator(xlsx(workbook()), "Roles")) {
+            assertEquals(rows.getHeader(), new String[] {"role"});
+            assertEquals(row(rows).get("role"), "admin");
+            assertFalse(rows.hasNext());
+        }
+    }
+
+    @Test(expectedExceptions = SkipException.class)
+    public void unknownSheetSkipsTest() throws IOException {
+        new XlsxRowIterator(xlsx(workbook()), "Missing");
+    }
+
+    @Test(expectedExceptions = SkipException.class)
+    public void missingWorkbookSkipsTest() throws IOException {
+        Map<String, String> entries = workbook();
+        entries.remove("xl/workbook.xml");
+        new XlsxRowIterator(xlsx(entries), "");
+    }
+
+    @Test(expectedExceptions = SkipException.class)
+    public void missingRelationshipsSkipsTest() throws IOException {
+        Map<String, String> entries = workbook();
+        entries.remove("xl/_rels/workbook.xml.rels");
+        new XlsxRowIterator(xlsx(entries), "");
+    }
+
+    @Test(expectedExceptions = SkipException.class)
+    public void invalidFileSkipsTest() throws IOException {
+        File file = File.createTempFile("seletest", ".xlsx");
+        file.deleteOnExit();
+        new XlsxRowIterator(file.getPath(), "");
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, String> row(XlsxRowIterator rows) {
+        assertTrue(rows.hasNext());
+        return (Map<String, String>) rows.next()[0];
+    }
+
+    private Map<String, String> workbook() {
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("xl/workbook.xml", WORKBOOK);
+        entries.put("xl/_rels/workbook.xml.rels", RELATIONSHIPS);
+        entries.put("xl/sharedStrings.xml", SHARED_STRINGS);
+        entries.put("xl/worksheets/sheet1.xml", USERS);
+        entries.put("xl/worksheets/sheet2.xml", ROLES);
+        return entries;
+    }
+
+    private String xlsx(Map<String, String> entries) throws IOException {
+        File file = File.createTempFile("seletest", ".xlsx");
+        file.deleteOnExit();
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(file))) {
+            for(Map.Entry<String, String> entry : entries.entrySet()) {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                zip.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return file.getPath();
+    }
+}
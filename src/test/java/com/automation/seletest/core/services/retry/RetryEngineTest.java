@@ -0,0 +1,105 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.retry;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openqa.selenium.TimeoutException;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the retry budgets and counters of RetryEngine
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+public class RetryEngineTest {
+
+    private RetryEngine engine;
+
+    @BeforeMethod
+    public void setUp() {
+        engine = new RetryEngine();
+        engine.setSessionBudget(2);
+        engine.setSuiteBudget(3);
+    }
+
+    @Test
+    public void classifyingFailuresDoesNotCountThem() {
+        assertTrue(engine.isPermanent(new TimeoutException("timeout")));
+        assertFalse(engine.isPermanent(new IllegalStateException()));
+        assertEquals(engine.getPermanentFailures(), 0);
+
+        engine.recordPermanentFailure();
+        assertEquals(engine.getPermanentFailures(), 1);
+    }
+
+    @Test
+    public void sessionIsChargedOnlyForRetriesTheSuiteAccepts() {
+        AtomicInteger first = new AtomicInteger();
+        AtomicInteger second = new AtomicInteger();
+        assertTrue(engine.acquire(first));
+        assertTrue(engine.acquire(first));
+        assertTrue(engine.acquire(second));
+
+        assertFalse(engine.acquire(second));
+        assertTrue(engine.isSuiteCircuitOpen());
+        assertEquals(second.get(), 1);
+        assertEquals(engine.getRetries(), 3);
+        assertEquals(engine.getRejectedRetries(), 1);
+    }
+
+    @Test
+    public void exceededSessionBudgetDoesNotConsumeSuiteBudget() {
+        AtomicInteger exhausted = new AtomicInteger();
+        assertTrue(engine.acquire(exhausted));
+        assertTrue(engine.acquire(exhausted));
+        assertFalse(engine.acquire(exhausted));
+        assertFalse(engine.acquire(exhausted));
+
+        assertTrue(engine.acquire(new AtomicInteger()));
+        assertFalse(engine.isSuiteCircuitOpen());
+        assertEquals(engine.getRejectedRetries(), 2);
+    }
+
+    @Test
+    public void resetClosesSuiteCircuit() {
+        engine.setSuiteBudget(0);
+        assertFalse(engine.acquire(null));
+        assertTrue(engine.isSuiteCircuitOpen());
+
+        engine.reset();
+        engine.setSuiteBudget(1);
+        assertTrue(engine.acquire(null));
+        assertEquals(engine.getRetries(), 1);
+        assertEquals(engine.getRejectedRetries(), 0);
+    }
+}
@@ -0,0 +1,146 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.utilities;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.MailSender;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of digests, rate limit and failed sends of MailNotificationQueue
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+public class MailNotificationQueueTest {
+
+    private StubMailSender mailSender;
+
+    private MailNotificationQueue queue;
+
+    @BeforeMethod
+    public void setUp() {
+        mailSender = new StubMailSender();
+        MailUtils mailService = new MailUtils();
+        ReflectionTestUtils.setField(mailService, "mailSender", mailSender);
+        queue = new MailNotificationQueue();
+        queue.env = new MockEnvironment().withProperty("mail.max.per.hour", "2").withProperty("mail.digest.millis", "3600000");
+        queue.mailService = mailService;
+        queue.init();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        mailSender.failing = false;
+        queue.shutdown();
+    }
+
+    @Test
+    public void notificationsAreCoalescedPerRecipient() {
+        queue.notifyFailure("a@seletest", "Failure on test: first", "first");
+        queue.notifyFailure("a@seletest", "Failure on test: second", "second");
+        queue.notifyFailure("b@seletest", "Failure on test: third", "third");
+        queue.digest(false);
+
+        assertEquals(mailSender.messages.size(), 2);
+        SimpleMailMessage digest = mailSender.messages.get(0);
+        assertEquals(digest.getTo()[0], "a@seletest");
+        assertEquals(digest.getSubject(), "2 test failures");
+        assertTrue(digest.getText().contains("Failure on test: first\nfirst"));
+        assertTrue(digest.getText().contains("Failure on test: second\nsecond"));
+        SimpleMailMessage single = mailSender.messages.get(1);
+        assertEquals(single.getTo()[0], "b@seletest");
+        assertEquals(single.getSubject(), "Failure on test: third");
+        assertEquals(single.getText(), "third");
+    }
+
+    @Test
+    public void notificationsOverLimitWaitForFlush() {
+        for(int i = 0; i < 3; i++) {
+            queue.notifyFailure("a@seletest", "Failure on test: " + i, "body " + i);
+            queue.digest(false);
+        }
+        assertEquals(mailSender.messages.size(), 2);
+
+        queue.flush();
+        assertEquals(mailSender.messages.size(), 3);
+        assertEquals(mailSender.messages.get(2).getSubject(), "Failure on test: 2");
+    }
+
+    @Test
+    public void failedDigestIsSentWithNextDigest() {
+        mailSender.failing = true;
+        queue.notifyFailure("a@seletest", "Failure on test: first", "first");
+        queue.digest(false);
+        queue.digest(false);
+        assertEquals(mailSender.messages.size(), 0);
+
+        mailSender.failing = false;
+        queue.notifyFailure("a@seletest", "Failure on test: second", "second");
+        queue.digest(false);
+        assertEquals(mailSender.messages.size(), 1);
+        assertEquals(mailSender.messages.get(0).getSubject(), "2 test failures");
+
+        queue.flush();
+        assertEquals(mailSender.messages.size(), 1);
+    }
+
+    /**
+     * MailSender recording messages, fails while failing is set
+     */
+    private static class StubMailSender implements MailSender {
+
+        final List<SimpleMailMessage> messages = new ArrayList<>();
+
+        volatile boolean failing;
+
+        @Override
+        public void send(SimpleMailMessage simpleMessage) {
+            if(failing) {
+                throw new MailSendException("SMTP server not available");
+            }
+            messages.add(simpleMessage);
+        }
+
+        @Override
+        public void send(SimpleMailMessage... simpleMessages) {
+            for(SimpleMailMessage simpleMessage : simpleMessages) {
+                send(simpleMessage);
+            }
+        }
+    }
+}
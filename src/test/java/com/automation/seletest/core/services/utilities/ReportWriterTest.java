@@ -0,0 +1,128 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.services.utilities;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.FileUtils;
+import org.springframework.mock.env.MockEnvironment;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.automation.seletest.core.services.utilities.ReportWriter.Level;
+
+/**
+ * Tests of the report lifecycle of test invocations
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+public class ReportWriterTest {
+
+    private static final String METHOD = "WebDemoTest.GoogleTest.search";
+
+    private ReportWriter writer;
+
+    private File directory;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        directory = File.createTempFile("seletest", "reports");
+        assertTrue(directory.delete());
+        writer = new ReportWriter();
+        writer.env = new MockEnvironment().withProperty("report.flush.millis", "3600000");
+        writer.init();
+        writer.setDirectory(directory);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        writer.shutdown();
+        FileUtils.deleteQuietly(directory);
+    }
+
+    @Test
+    public void invocationsOfAMethodGetTheirOwnReport() throws IOException {
+        String first = writer.begin(METHOD);
+        String second = writer.begin(METHOD);
+        assertEquals(first, METHOD + "-0");
+        assertEquals(second, METHOD + "-1");
+
+        writer.append(first, Level.INFO, "first row", "\"color:black;\"");
+        writer.append(second, Level.ERROR, "second row", "\"color:red;\"");
+        writer.end(first);
+        writer.end(second);
+
+        String firstReport = report(first);
+        String secondReport = report(second);
+        assertTrue(firstReport.contains("first row"));
+        assertFalse(firstReport.contains("second row"));
+        assertTrue(secondReport.contains("second row"));
+        assertFalse(secondReport.contains("first row"));
+    }
+
+    @Test
+    public void beginTruncatesReportOfPreviousRun() throws IOException {
+        FileUtils.writeStringToFile(writer.reportFile(METHOD + "-0"), "entry of previous run", StandardCharsets.UTF_8.name());
+        String invocation = writer.begin(METHOD);
+        String report = report(invocation);
+        assertFalse(report.contains("entry of previous run"));
+        assertTrue(report.startsWith("<html>"));
+    }
+
+    @Test
+    public void endWritesRemainingEntriesOnce() throws IOException {
+        String invocation = writer.begin(METHOD);
+        writer.append(invocation, Level.WARN, "before end", "\"color:black;\"");
+        writer.end(invocation);
+        writer.flush();
+        writer.end(invocation);
+
+        String report = report(invocation);
+        assertEquals(report.indexOf("before end"), report.lastIndexOf("before end"));
+        assertTrue(report.contains("before end"));
+    }
+
+    @Test
+    public void entriesOutsideOfTestGoToSuiteReport() throws IOException {
+        writer.append(null, Level.INFO, "suite entry", "\"color:black;\"");
+        writer.flush();
+        assertTrue(report("suite").contains("suite entry"));
+    }
+
+    private String report(String invocation) throws IOException {
+        File file = writer.reportFile(invocation);
+        assertTrue(file.isFile(), file.getPath());
+        return FileUtils.readFileToString(file, StandardCharsets.UTF_8.name());
+    }
+}
@@ -0,0 +1,236 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.spring;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.mock.env.MockEnvironment;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.automation.seletest.core.selenium.threads.ExecutionContext;
+import com.automation.seletest.core.selenium.threads.SessionProperties;
+
+/**
+ * Tests of round robin dispatch, blocking and inline fallback of FairSessionExecutor.
+ * A single worker is blocked by a gate task while the session queues are filled, so dispatch order is deterministic.
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+public class FairSessionExecutorTest {
+
+    private static final long TIMEOUT = 5000;
+
+    private final SessionProperties<?> heavy = new SessionProperties<>();
+
+    private final SessionProperties<?> light = new SessionProperties<>();
+
+    private CountDownLatch gateStarted;
+
+    private CountDownLatch gateOpen;
+
+    private List<String> order;
+
+    private FairSessionExecutor executor;
+
+    @BeforeMethod
+    public void setUp() {
+        gateStarted = new CountDownLatch(1);
+        gateOpen = new CountDownLatch(1);
+        order = new CopyOnWriteArrayList<>();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        gateOpen.countDown();
+        ExecutionContext.clear();
+        if(executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void sessionsAreDispatchedRoundRobin() throws Exception {
+        executor = executor(10, 1000);
+        Future<?> gate = gate();
+        submit(heavy, "heavy-1", "heavy-2", "heavy-3");
+        Future<?> last = submit(light, "light-1", "light-2");
+        assertEquals(executor.getQueueDepth(), 5);
+        assertEquals(executor.getMaxQueued().get(), 5);
+
+        gateOpen.countDown();
+        gate.get(TIMEOUT, TimeUnit.MILLISECONDS);
+        last.get(TIMEOUT, TimeUnit.MILLISECONDS);
+        awaitDepth(0);
+        assertEquals(order, Arrays.asList("heavy-1", "light-1", "heavy-2", "light-2", "heavy-3"));
+        assertEquals(executor.getDispatched().get(), 6);
+    }
+
+    @Test
+    public void fullQueueRunsTaskInSubmittingThreadAfterBlocking() throws Exception {
+        executor = executor(1, 50);
+        gate();
+        Future<?> queued = submit(heavy, "queued");
+        long start = System.nanoTime();
+        Future<?> inline = submit(heavy, "inline");
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 50);
+        assertTrue(inline.isDone());
+        assertEquals(order, Arrays.asList("inline"));
+        assertEquals(executor.getBlocked().get(), 1);
+        assertEquals(executor.getInlineRuns().get(), 1);
+        assertEquals(executor.getQueueDepth(), 1);
+
+        gateOpen.countDown();
+        queued.get(TIMEOUT, TimeUnit.MILLISECONDS);
+        awaitDepth(0);
+    }
+
+    @Test
+    public void blockedSubmitterIsQueuedWhenSpaceFrees() throws Exception {
+        executor = executor(1, TIMEOUT);
+        gate();
+        submit(heavy, "first");
+        final String submitter = Thread.currentThread().getName();
+        final List<String> threads = new CopyOnWriteArrayList<>();
+        ExecutorService submitters = Executors.newSingleThreadExecutor();
+        Future<Future<?>> blockedSubmit = submitters.submit(new Callable<Future<?>>() {
+            @Override
+            public Future<?> call() {
+                ExecutionContext.start(heavy, 0);
+                return executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        threads.add(Thread.currentThread().getName());
+                    }
+                });
+            }
+        });
+        awaitBlocked(1);
+        gateOpen.countDown();
+
+        blockedSubmit.get(TIMEOUT, TimeUnit.MILLISECONDS).get(TIMEOUT, TimeUnit.MILLISECONDS);
+        submitters.shutdown();
+        assertEquals(executor.getInlineRuns().get(), 0);
+        assertEquals(threads.size(), 1);
+        assertNotEquals(threads.get(0), submitter);
+        assertTrue(threads.get(0).startsWith("Seletest Thread Pool - "));
+        awaitDepth(0);
+    }
+
+    @Test
+    public void interruptedSubmitterCancelsTask() throws Exception {
+        executor = executor(1, TIMEOUT);
+        gate();
+        Future<?> queued = submit(heavy, "queued");
+
+        Thread.currentThread().interrupt();
+        Future<?> interrupted = submit(heavy, "interrupted");
+        assertTrue(Thread.interrupted());
+        assertTrue(interrupted.isCancelled());
+        assertEquals(executor.getQueueDepth(), 1);
+
+        gateOpen.countDown();
+        queued.get(TIMEOUT, TimeUnit.MILLISECONDS);
+        awaitDepth(0);
+        assertFalse(order.contains("interrupted"));
+    }
+
+    private FairSessionExecutor executor(int sessionQueue, long blockMillis) {
+        FairSessionExecutor fairExecutor = new FairSessionExecutor();
+        fairExecutor.env = new MockEnvironment()
+                .withProperty("executor.workers", "1")
+                .withProperty("executor.session.queue", String.valueOf(sessionQueue))
+                .withProperty("executor.block.millis", String.valueOf(blockMillis));
+        fairExecutor.init();
+        return fairExecutor;
+    }
+
+    /**
+     * Occupy the only worker until gateOpen is released
+     */
+    private Future<?> gate() throws InterruptedException {
+        ExecutionContext.clear();
+        Future<?> gate = executor.submit(new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                gateStarted.countDown();
+                return gateOpen.await(TIMEOUT, TimeUnit.MILLISECONDS);
+            }
+        });
+        assertTrue(gateStarted.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        return gate;
+    }
+
+    /**
+     * Submit tasks recording their names from the thread of a session
+     * @return the Future of the last task
+     */
+    private Future<?> submit(SessionProperties<?> session, String... names) {
+        ExecutionContext.start(session, 0);
+        Future<?> last = null;
+        for(final String name : names) {
+            last = executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    order.add(name);
+                }
+            });
+        }
+        return last;
+    }
+
+    private void awaitDepth(int depth) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while(executor.getQueueDepth() != depth && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(executor.getQueueDepth(), depth);
+    }
+
+    private void awaitBlocked(long blocked) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while(executor.getBlocked().get() < blocked && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(executor.getBlocked().get(), blocked);
+    }
+}
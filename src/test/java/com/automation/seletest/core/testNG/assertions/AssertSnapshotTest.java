@@ -0,0 +1,139 @@
+/*
+This file is part of the Seletest by Papadakis Giannis <gpapadakis84@gmail.com>.
+
+Copyright (c) 2014, Papadakis Giannis <gpapadakis84@gmail.com>
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without modification,
+are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice,
+      this list of conditions and the following disclaimer.
+ * Redistributions in binary form must reproduce the above copyright notice,
+      this list of conditions and the following disclaimer in the documentation
+      and/or other materials provided with the distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.automation.seletest.core.testNG.assertions;
+
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.mock.env.MockEnvironment;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.testng.asserts.Assertion;
+
+import com.automation.seletest.core.selenium.threads.ExecutionContext;
+import com.automation.seletest.core.selenium.threads.SessionProperties;
+import com.automation.seletest.core.selenium.webAPI.WebController;
+
+/**
+ * Tests that verifications evaluate the DOM snapshot of their session,
+ * also when they run on executor threads with the context of the test attached.
+ * No controller strategy is set, so a verification that misses the snapshot fails.
+ * @author Giannis Papadakis(mailTo:gpapadakis84@gmail.com)
+ *
+ */
+public class AssertSnapshotTest {
+
+    private static final long TIMEOUT = 5000;
+
+    private SessionProperties<?> session;
+
+    private Assert<Assertion> verify;
+
+    private ExecutorService pool;
+
+    @BeforeMethod
+    public void setUp() {
+        session = new SessionProperties<>();
+        session.setSnapshot(DomSnapshot.capture(controller(state(1, 1, "Login"), state(3, 2, "Row")), "css=#login", "css=.row"));
+        verify = new Assert<>();
+        verify.setAssertion(new Assertion());
+        verify.env = new MockEnvironment();
+        ExecutionContext.start(session, 0);
+        pool = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        pool.shutdownNow();
+        ExecutionContext.clear();
+    }
+
+    @Test
+    public void verificationOnExecutorThreadUsesSnapshot() throws Exception {
+        final ExecutionContext captured = ExecutionContext.capture();
+        boolean verified = pool.submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                ExecutionContext previous = ExecutionContext.attach(captured);
+                try {
+                    return verify.elementPresent("css=#login").get()
+                            && verify.elementsMatching("css=.row", 2).get()
+                            && verify.textPresentinElement("css=#login", "Log").get();
+                } finally {
+                    ExecutionContext.attach(previous);
+                }
+            }
+        }).get(TIMEOUT, TimeUnit.MILLISECONDS);
+        assertTrue(verified);
+    }
+
+    @Test
+    public void releaseSnapshotClearsSessionOfContext() {
+        verify.releaseSnapshot();
+        assertNull(session.getSnapshot());
+    }
+
+    /**
+     * Controller answering the snapshot script with the given element states
+     */
+    @SuppressWarnings("unchecked")
+    private static WebController<?> controller(final Map<String, Object>... states) {
+        return (WebController<?>) Proxy.newProxyInstance(WebController.class.getClassLoader(), new Class<?>[] {WebController.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                List<Map<String, Object>> result = new ArrayList<>();
+                for(Map<String, Object> state : states) {
+                    result.add(state);
+                }
+                return "executeJS".equals(method.getName()) ? result : null;
+            }
+        });
+    }
+
+    private static Map<String, Object> state(int count, int visibleCount, String text) {
+        Map<String, Object> state = new HashMap<>();
+        state.put("count", count);
+        state.put("visibleCount", visibleCount);
+        state.put("visible", visibleCount > 0);
+        state.put("enabled", true);
+        state.put("text", text);
+        return state;
+    }
+}